@@ -1,23 +1,96 @@
 package com.cms.cms.Repository;
 
 import com.cms.cms.model.Order;
+import com.cms.cms.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByOrgId(Integer orgId);
     Optional<Order> findByIdAndOrgId(Long id, Integer orgId);
 
-    // New methods for pending orders
-    @Query("SELECT o FROM Order o WHERE o.status = 'Pending' ORDER BY o.date DESC")
+    // Pending queue: both queries are served by the partial index idx_orders_pending_placed_at
+    @Query("SELECT o FROM Order o WHERE o.status = com.cms.cms.model.OrderStatus.PENDING ORDER BY o.placedAt DESC NULLS LAST, o.id DESC")
     List<Order> findAllPendingOrders();
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = 'Pending'")
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = com.cms.cms.model.OrderStatus.PENDING")
     long countPendingOrders();
 
-    Optional<Order> findByIdAndStatus(Long id, String status);
-}
\ No newline at end of file
+    Optional<Order> findByIdAndStatus(Long id, OrderStatus status);
+
+    // Bulk approval: load and lock all requested orders in one round trip
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Bulk rejection: lock and read only id/status of the requested orders
+    @Query(value = "SELECT id, status, organization_id, total_amount FROM orders WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+    List<Object[]> findStatusesForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Matches legacy "Pending" labels too, the same way findStatusesForUpdate rows are classified
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE orders SET status = 'REJECTED', remarks = :reason " +
+            "WHERE UPPER(TRIM(status)) = 'PENDING' AND id IN (:ids)", nativeQuery = true)
+    int rejectPendingOrders(@Param("ids") Collection<Long> ids, @Param("reason") String reason);
+
+    // Exports: forward-only cursor over an organization's orders, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.orgId = :orgId ORDER BY o.id")
+    Stream<Order> streamByOrgId(@Param("orgId") Integer orgId);
+
+    // Analytics snapshot: the few columns the in-memory aggregations need, streamed in id order
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.id, o.date, o.orgId, o.status, o.totalAmount FROM Order o ORDER BY o.id")
+    Stream<Object[]> streamAnalyticsColumns();
+
+    @Query("SELECT o.id, o.date, o.orgId, o.status, o.totalAmount FROM Order o WHERE o.orgId = :orgId")
+    List<Object[]> findAnalyticsColumnsByOrgId(@Param("orgId") Integer orgId);
+
+    // Full-text search on the generated search_vector column (Postgres only), best matches first
+    @Query(value = "SELECT o.* FROM orders o, to_tsquery('simple', :query) q " +
+            "WHERE o.organization_id = :orgId AND o.search_vector @@ q " +
+            "ORDER BY ts_rank(o.search_vector, q) DESC, o.id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> searchByOrgId(@Param("orgId") Integer orgId, @Param("query") String query, @Param("limit") int limit);
+
+    @Query(value = "SELECT o.* FROM orders o, to_tsquery('simple', :query) q " +
+            "WHERE o.search_vector @@ q " +
+            "ORDER BY ts_rank(o.search_vector, q) DESC, o.id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> searchAll(@Param("query") String query, @Param("limit") int limit);
+
+    // Search without the full-text column: newest orders containing one query term, ranked in memory
+    @Query("SELECT o FROM Order o WHERE (:orgId IS NULL OR o.orgId = :orgId) AND (" +
+            "LOWER(o.orderId) LIKE :pattern OR LOWER(o.prnNo) LIKE :pattern OR " +
+            "LOWER(o.productName) LIKE :pattern OR LOWER(o.brand) LIKE :pattern) ORDER BY o.id DESC")
+    List<Order> findSearchCandidates(@Param("orgId") Integer orgId, @Param("pattern") String pattern, Pageable pageable);
+
+    // Dashboard counters: order count and total amount per organization and status
+    @Query("SELECT o.orgId, o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+            "WHERE o.orgId IS NOT NULL GROUP BY o.orgId, o.status")
+    List<Object[]> aggregateByOrgAndStatus();
+
+    @Query("SELECT o.orgId, o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+            "WHERE o.orgId = :orgId GROUP BY o.orgId, o.status")
+    List<Object[]> aggregateByStatusForOrg(@Param("orgId") Integer orgId);
+}
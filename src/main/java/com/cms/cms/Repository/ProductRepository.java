@@ -2,10 +2,12 @@ package com.cms.cms.Repository;
 
 import com.cms.cms.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,15 +26,39 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p JOIN p.organizations o WHERE o.id = :orgId")
     List<Product> findProductsByOrganizationId(@Param("orgId") Long orgId);
 
-    // Find products that are NOT available to a specific organization
-    @Query("SELECT p FROM Product p WHERE p.isAvailable = true AND p.id NOT IN " +
-            "(SELECT p2.id FROM Product p2 JOIN p2.organizations o WHERE o.id = :orgId)")
+    // Ids of the products assigned to an organization, read straight from the join table
+    @Query(value = "SELECT op.product_id FROM organization_products op WHERE op.organization_id = :orgId", nativeQuery = true)
+    List<Long> findProductIdsByOrganizationId(@Param("orgId") Long orgId);
+
+    // Find products that are NOT available to a specific organization.
+    // Anti-join against the (organization_id, product_id) index instead of NOT IN over a joined subquery
+    @Query(value = "SELECT p.* FROM products p WHERE p.is_available = true AND NOT EXISTS " +
+            "(SELECT 1 FROM organization_products op WHERE op.organization_id = :orgId AND op.product_id = p.id) " +
+            "ORDER BY p.name",
+            nativeQuery = true)
     List<Product> findProductsNotInOrganization(@Param("orgId") Long orgId);
 
-    // Search products by name or type that are NOT available to a specific organization
-    @Query("SELECT p FROM Product p WHERE p.isAvailable = true AND " +
-            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.type) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
-            "p.id NOT IN (SELECT p2.id FROM Product p2 JOIN p2.organizations o WHERE o.id = :orgId)")
+    // Search products by name or type that are NOT available to a specific organization.
+    // LOWER(...) LIKE '%term%' is served by the pg_trgm GIN indexes from changelog 0010
+    @Query(value = "SELECT p.* FROM products p WHERE p.is_available = true AND " +
+            "(LOWER(p.name) LIKE CONCAT('%', LOWER(:searchTerm), '%') OR " +
+            "LOWER(p.type) LIKE CONCAT('%', LOWER(:searchTerm), '%')) AND NOT EXISTS " +
+            "(SELECT 1 FROM organization_products op WHERE op.organization_id = :orgId AND op.product_id = p.id) " +
+            "ORDER BY p.name",
+            nativeQuery = true)
     List<Product> searchProductsNotInOrganization(@Param("searchTerm") String searchTerm, @Param("orgId") Long orgId);
+
+    // Assign many products to an organization in one statement; already-assigned and unavailable products are skipped
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO organization_products (organization_id, product_id) " +
+            "SELECT :orgId, p.id FROM products p WHERE p.id IN (:productIds) AND p.is_available = true " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int assignProductsToOrganization(@Param("orgId") Long orgId, @Param("productIds") Collection<Long> productIds);
+
+    // Remove many products from an organization in one statement
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM organization_products WHERE organization_id = :orgId AND product_id IN (:productIds)",
+            nativeQuery = true)
+    int removeProductsFromOrganization(@Param("orgId") Long orgId, @Param("productIds") Collection<Long> productIds);
 }
\ No newline at end of file
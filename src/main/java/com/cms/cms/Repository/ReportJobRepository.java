@@ -0,0 +1,35 @@
+package com.cms.cms.Repository;
+
+import com.cms.cms.model.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    // Reuse: the newest job for the same spec that is still useful
+    Optional<ReportJob> findFirstBySpecKeyAndStatusInOrderByCreatedAtDesc(String specKey, Collection<ReportJob.Status> statuses);
+
+    List<ReportJob> findTop50ByOrderByCreatedAtDesc();
+
+    List<ReportJob> findByStatus(ReportJob.Status status);
+
+    List<ReportJob> findByStatusAndStartedAtBefore(ReportJob.Status status, LocalDateTime startedBefore);
+
+    List<ReportJob> findByStatusAndCreatedAtBefore(ReportJob.Status status, LocalDateTime createdBefore);
+
+    List<ReportJob> findByStatusAndCompletedAtBefore(ReportJob.Status status, LocalDateTime completedBefore);
+
+    // A worker takes a job only if no other worker or node got to it first
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.status = com.cms.cms.model.ReportJob.Status.RUNNING, j.startedAt = :now " +
+            "WHERE j.id = :id AND j.status = com.cms.cms.model.ReportJob.Status.QUEUED")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,176 @@
+package com.cms.cms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager so @Cacheable methods degrade to a cache miss while the
+ * Redis circuit is open, instead of failing or waiting for the command timeout.
+ * Evictions and clears that cannot reach Redis are queued and replayed once it is back
+ * (see {@link RedisCircuitBreaker#onRecovery}), so entries cached before the outage do not outlive the data they were evicted for.
+ */
+public class CircuitBreakingCacheManager implements CacheManager {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakingCacheManager.class);
+
+    private final CacheManager delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Map<String, CircuitBreakingCache> caches = new ConcurrentHashMap<>();
+
+    public CircuitBreakingCacheManager(CacheManager delegate, RedisCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        circuitBreaker.onRecovery(this::flushPendingEvictions);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target != null ? caches.computeIfAbsent(name, key -> new CircuitBreakingCache(target)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Apply the evictions and clears that were queued during a Redis outage
+     */
+    private void flushPendingEvictions() {
+        for (CircuitBreakingCache cache : caches.values()) {
+            try {
+                cache.flushPending();
+            } catch (Exception e) {
+                logger.warn("Could not replay queued evictions for cache {}: {}", cache.getName(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private class CircuitBreakingCache implements Cache {
+        private final Cache target;
+        private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet();
+        private volatile boolean pendingClear;
+
+        CircuitBreakingCache(Cache target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return circuitBreaker.call(() -> target.get(key), () -> null);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return circuitBreaker.call(() -> target.get(key, type), () -> null);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) cached.get();
+                return value;
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            circuitBreaker.run(() -> target.put(key, value));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return circuitBreaker.call(() -> target.putIfAbsent(key, value), () -> null);
+        }
+
+        @Override
+        public void evict(Object key) {
+            circuitBreaker.call(() -> {
+                target.evict(key);
+                return null;
+            }, () -> {
+                pendingEvictions.add(key);
+                return null;
+            });
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return circuitBreaker.call(() -> target.evictIfPresent(key), () -> {
+                pendingEvictions.add(key);
+                return false;
+            });
+        }
+
+        @Override
+        public void clear() {
+            circuitBreaker.call(() -> {
+                target.clear();
+                return null;
+            }, () -> {
+                pendingClear = true;
+                return null;
+            });
+        }
+
+        @Override
+        public boolean invalidate() {
+            return circuitBreaker.call(target::invalidate, () -> {
+                pendingClear = true;
+                return false;
+            });
+        }
+
+        // A queued clear covers every queued key; keys are removed only once they are evicted
+        void flushPending() {
+            if (pendingClear) {
+                pendingClear = false;
+                pendingEvictions.clear();
+                try {
+                    target.clear();
+                } catch (RuntimeException e) {
+                    pendingClear = true;
+                    throw e;
+                }
+                return;
+            }
+            for (Object key : pendingEvictions) {
+                target.evict(key);
+                pendingEvictions.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.cms.cms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.task.ThreadPoolTaskExecutorCustomizer;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Routed connection pools, enabled with app.datasource.replica.enabled=true and/or
+ * app.datasource.workload-pools.enabled=true.
+ * <p>
+ * With workload pools, order writes and auth use the OLTP pool configured by
+ * spring.datasource.*, dashboards and exports use app.datasource.reporting.* and scheduled jobs
+ * use app.datasource.background.*, each sized independently. With a replica, work inside
+ * {@code @Transactional(readOnly = true)} runs on the replica pool while the replica is healthy
+ * and within app.datasource.replica.max-lag-ms. Saturation of every pool is published by
+ * Spring Boot as hikaricp.connections.active/pending/timeout tagged with the pool name.
+ * Without either flag Spring Boot's single pool is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.replica.enabled:false} or ${app.datasource.workload-pools.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    @Value("${app.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    // Override for databases other than Postgres, e.g. "SELECT 0" for H2
+    @Value("${app.datasource.replica.lag-query:" + ReplicaLagMonitor.POSTGRES_LAG_QUERY + "}")
+    private String lagQuery;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return pool(properties, "oltp");
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.reporting.hikari")
+    @ConditionalOnProperty(name = "app.datasource.workload-pools.enabled", havingValue = "true")
+    public HikariDataSource reportingDataSource(DataSourceProperties properties) {
+        return pool(properties, "reporting");
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.background.hikari")
+    @ConditionalOnProperty(name = "app.datasource.workload-pools.enabled", havingValue = "true")
+    public HikariDataSource backgroundDataSource(DataSourceProperties properties) {
+        return pool(properties, "background");
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLagMs);
+        monitor.check();
+        return monitor;
+    }
+
+    /**
+     * Scheduled jobs take their connections from the background pool
+     */
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer backgroundWorkloadCustomizer() {
+        return scheduler -> scheduler.setTaskDecorator(Workload.BACKGROUND::wrap);
+    }
+
+    /**
+     * The application executor also runs MVC async work such as streaming export bodies;
+     * carry over the submitting request's workload so exports stay on the reporting pool
+     */
+    @Bean
+    public ThreadPoolTaskExecutorCustomizer requestWorkloadCustomizer() {
+        return executor -> executor.setTaskDecorator(task -> Workload.current().wrap(task));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("reportingDataSource") ObjectProvider<DataSource> reportingDataSource,
+                                 @Qualifier("backgroundDataSource") ObjectProvider<DataSource> backgroundDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        Map<Workload, DataSource> pools = new EnumMap<>(Workload.class);
+        pools.put(Workload.OLTP, primaryDataSource);
+        reportingDataSource.ifAvailable(pool -> pools.put(Workload.REPORTING, pool));
+        backgroundDataSource.ifAvailable(pool -> pools.put(Workload.BACKGROUND, pool));
+
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                pools, replicaDataSource.getIfAvailable(), replicaLagMonitor.getIfAvailable()));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
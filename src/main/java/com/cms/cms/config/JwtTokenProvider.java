@@ -1,22 +1,26 @@
 package com.cms.cms.config;
 
+import com.cms.cms.service.TokenRevocationService;
+import com.cms.cms.service.TokenVersionService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service responsible for JWT token operations.
@@ -38,8 +42,11 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration:604800000}")
     private int refreshTokenExpirationMs;
 
-    // Token blacklist to store invalidated tokens
-    private final Map<String, Date> blacklistedTokens = new ConcurrentHashMap<>();
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
 
     /**
      * Get the signing key for JWT
@@ -76,6 +83,9 @@ public class JwtTokenProvider {
             claims.put("orgId", ((UserDetailsWithOrg) userDetails).getOrgId());
         }
 
+        // Tokens issued before the user's version is bumped stop validating
+        claims.put("ver", tokenVersionService.versionForNewToken(userType, userDetails.getUsername()));
+
         // Add roles to claims
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(authority -> authority.getAuthority())
@@ -124,6 +134,7 @@ public class JwtTokenProvider {
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .setIssuer(issuer)
+                .setId(UUID.randomUUID().toString())
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -157,58 +168,35 @@ public class JwtTokenProvider {
                 .getBody();
     }
 
-    /**
-     * Blacklist a token
-     * @param token The token to blacklist
-     */
-    public void blacklistToken(String token) {
-        try {
-            // Get the expiration date to know how long to keep it in the blacklist
-            Date expiry = getExpirationDateFromToken(token);
-            blacklistedTokens.put(token, expiry);
-            logger.info("Token blacklisted");
-        } catch (Exception e) {
-            logger.warn("Could not blacklist token: {}", e.getMessage());
-            // If we can't parse the token, blacklist it anyway with a default expiry
-            blacklistedTokens.put(token, new Date(System.currentTimeMillis() + jwtExpirationInMs));
-        }
-    }
-
-    /**
-     * Check if a token is blacklisted
-     * @param token The token to check
-     * @return True if the token is blacklisted
-     */
-    public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.containsKey(token);
-    }
-
-    /**
-     * Clean up expired blacklisted tokens to prevent memory leaks
-     * Runs every hour to remove expired tokens from the blacklist
-     */
-    @Scheduled(fixedRate = 3600000) // Run every hour
-    public void cleanupBlacklist() {
-        Date now = new Date();
-        blacklistedTokens.entrySet().removeIf(entry -> entry.getValue().before(now));
-        logger.debug("Cleaned up token blacklist, remaining size: {}", blacklistedTokens.size());
-    }
-
     /**
      * Validate a token
      */
     public boolean validateToken(String authToken) {
-        // First check if the token is blacklisted
-        if (isTokenBlacklisted(authToken)) {
-            logger.warn("Token is blacklisted");
-            return false;
-        }
-
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
+            Claims claims = extractAllClaims(authToken);
+
+            // Revoked tokens are rejected; unrevoked ones are answered without a Redis call
+            if (tokenRevocationService.isRevoked(getTokenId(authToken, claims), claims.getExpiration().getTime())) {
+                logger.warn("Token has been revoked");
+                return false;
+            }
+
+            Number tokenVersion = claims.get("ver", Number.class);
+            String userType = claims.get("userType", String.class);
+            if (tokenVersion != null && tokenVersion.longValue() == TokenVersionService.UNKNOWN_VERSION) {
+                // Issued while the version store was unreachable: valid unless the user logged out everywhere since
+                if (!tokenVersionService.acceptsUnknownVersion(userType, claims.getSubject(),
+                        claims.getIssuedAt().getTime())) {
+                    logger.warn("Token issued without a known version predates the user's last version bump");
+                    return false;
+                }
+                return true;
+            }
+            long currentVersion = tokenVersionService.currentVersion(userType, claims.getSubject());
+            if ((tokenVersion != null ? tokenVersion.longValue() : 0) < currentVersion) {
+                logger.warn("Token version is older than the user's current version");
+                return false;
+            }
             return true;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -231,6 +219,33 @@ public class JwtTokenProvider {
         return jwtExpirationInMs;
     }
 
+    /**
+     * Get the revocation id of a token: its jti, or a SHA-256 of the token for tokens issued without one
+     */
+    public String getTokenId(String token) {
+        return getTokenId(token, extractAllClaims(token));
+    }
+
+    private String getTokenId(String token, Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Invalidate all tokens issued to the owner of this token
+     */
+    public long invalidateAllTokensForUser(String token) {
+        Claims claims = extractAllClaims(token);
+        return tokenVersionService.bumpVersion(claims.get("userType", String.class), claims.getSubject());
+    }
+
     /**
      * Get the expiration date from token
      */
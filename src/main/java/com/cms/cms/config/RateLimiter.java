@@ -5,9 +5,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis-based API rate limiter for protecting endpoints from abuse
@@ -19,6 +25,15 @@ public class RateLimiter {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    private static final int MAX_LOCAL_KEYS = 100_000;
+    private final Map<String, LocalWindow> localWindows = new ConcurrentHashMap<>();
+
     // Rate limiting configuration
     private static final String RATE_LIMITER_PREFIX = "rate:";
     private static final String IP_LIMITER_PREFIX = "rate:ip:";
@@ -48,25 +63,27 @@ public class RateLimiter {
             int limit = isLoginEndpoint ? LOGIN_ENDPOINT_LIMIT : DEFAULT_LIMIT;
             int timeframe = isLoginEndpoint ? LOGIN_TIMEFRAME : DEFAULT_TIMEFRAME;
 
-            // Check IP-based rate limiting
-            String ipKey = IP_LIMITER_PREFIX + clientIp;
-            if (!checkAndIncrement(ipKey, limit, timeframe)) {
-                logger.warn("Rate limit exceeded for IP: {}", clientIp);
-                return false;
-            }
+            List<String> keys = new ArrayList<>(3);
+            List<Integer> limits = new ArrayList<>(3);
 
-            // Check endpoint-based rate limiting
-            String endpointKey = ENDPOINT_LIMITER_PREFIX + endpoint.replaceAll("/", "_");
-            if (!checkAndIncrement(endpointKey, limit * 5, timeframe)) { // Higher limit for endpoints
-                logger.warn("Rate limit exceeded for endpoint: {}", endpoint);
-                return false;
+            // IP-based, endpoint-based (higher limit) and, for authenticated users, username-based limiting
+            keys.add(IP_LIMITER_PREFIX + clientIp);
+            limits.add(limit);
+            keys.add(ENDPOINT_LIMITER_PREFIX + endpoint.replaceAll("/", "_"));
+            limits.add(limit * 5);
+            if (username != null && !username.isEmpty()) {
+                keys.add(USER_LIMITER_PREFIX + username);
+                limits.add(limit);
             }
 
-            // For authenticated users, also check username-based limiting
-            if (username != null && !username.isEmpty()) {
-                String userKey = USER_LIMITER_PREFIX + username;
-                if (!checkAndIncrement(userKey, limit, timeframe)) {
-                    logger.warn("Rate limit exceeded for user: {}", username);
+            // While Redis is unavailable, count in this instance only
+            List<Long> counts = circuitBreaker.call(
+                    () -> incrementAll(keys, timeframe),
+                    () -> incrementLocal(keys, timeframe));
+            for (int i = 0; i < keys.size(); i++) {
+                Long current = counts.get(i);
+                if (current != null && current > limits.get(i)) {
+                    logger.warn("Rate limit exceeded for {}", keys.get(i));
                     return false;
                 }
             }
@@ -79,23 +96,65 @@ public class RateLimiter {
     }
 
     /**
-     * Check if key exists, increment its value, and create it if it doesn't exist
+     * Increment all rate limiting counters in one pipelined round trip.
+     * Each counter is created with its expiry (SET NX EX) before the INCR, so a key can never
+     * be left without a TTL the way a separate INCR followed by EXPIRE could.
      *
-     * @param key The rate limiting key
-     * @param limit The maximum number of requests allowed
+     * @param keys The rate limiting keys
      * @param timeframeSeconds The timeframe in seconds
-     * @return True if request is within limit, false otherwise
+     * @return The counter value after the increment, in key order
+     */
+    private List<Long> incrementAll(List<String> keys, int timeframeSeconds) {
+        List<Object> results = redisPipelineExecutor.pipeline(operations -> {
+            for (String key : keys) {
+                operations.opsForValue().setIfAbsent(key, 0, timeframeSeconds, TimeUnit.SECONDS);
+                operations.opsForValue().increment(key);
+            }
+        });
+
+        List<Long> counts = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = results.get(i * 2 + 1);
+            counts.add(value instanceof Number ? ((Number) value).longValue() : null);
+        }
+        return counts;
+    }
+
+    /**
+     * In-process fixed-window counters used while Redis is unavailable.
+     * Limits then apply per instance rather than across the cluster. When the table is full even
+     * after dropping expired windows, new keys are not tracked (their count is null, so only the
+     * counters that do exist, such as the endpoint one, can limit the request).
      */
-    private boolean checkAndIncrement(String key, int limit, int timeframeSeconds) {
-        Long current = redisTemplate.opsForValue().increment(key, 1);
+    private List<Long> incrementLocal(List<String> keys, int timeframeSeconds) {
+        long now = System.currentTimeMillis();
+        long windowMs = TimeUnit.SECONDS.toMillis(timeframeSeconds);
+
+        boolean full = false;
+        if (localWindows.size() >= MAX_LOCAL_KEYS) {
+            evictExpiredLocalWindows();
+            full = localWindows.size() >= MAX_LOCAL_KEYS;
+        }
 
-        // If this is the first request, set expiry
-        if (current != null && current == 1) {
-            redisTemplate.expire(key, timeframeSeconds, TimeUnit.SECONDS);
+        List<Long> counts = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            LocalWindow window = full
+                    ? localWindows.computeIfPresent(key, (k, current) ->
+                            current.expiresAt <= now ? new LocalWindow(now + windowMs) : current)
+                    : localWindows.compute(key, (k, current) ->
+                            current == null || current.expiresAt <= now ? new LocalWindow(now + windowMs) : current);
+            counts.add(window != null ? window.count.incrementAndGet() : null);
         }
+        return counts;
+    }
 
-        // Allow if within limit
-        return current != null && current <= limit;
+    /**
+     * Drop local counters whose window has passed
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredLocalWindows() {
+        long now = System.currentTimeMillis();
+        localWindows.values().removeIf(window -> window.expiresAt <= now);
     }
 
     /**
@@ -117,11 +176,21 @@ public class RateLimiter {
         try {
             if (username != null && !username.isEmpty()) {
                 String userKey = USER_LIMITER_PREFIX + username;
-                redisTemplate.delete(userKey);
+                localWindows.remove(userKey);
+                circuitBreaker.run(() -> redisTemplate.delete(userKey));
                 logger.info("Rate limit reset for user: {}", username);
             }
         } catch (Exception e) {
             logger.error("Error resetting rate limit for user: {}", username, e);
         }
     }
-}
\ No newline at end of file
+
+    private static class LocalWindow {
+        private final long expiresAt;
+        private final AtomicLong count = new AtomicLong();
+
+        LocalWindow(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
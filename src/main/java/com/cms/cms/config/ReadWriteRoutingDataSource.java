@@ -0,0 +1,96 @@
+package com.cms.cms.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * pool for the current {@link Workload}. When the replica is lagging, unreachable or not
+ * configured, reads use the workload pool; a workload without a pool of its own uses OLTP.
+ * <p>
+ * The transaction's read-only flag is only set after the transaction manager asks for a
+ * connection, so this must sit behind a LazyConnectionDataSourceProxy, which defers the real
+ * connection until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        REPLICA
+    }
+
+    private final Map<Workload, DataSource> pools;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this(Map.of(Workload.OLTP, primary), replica, lagMonitor);
+    }
+
+    /**
+     * @param pools      connection pool per workload, must include OLTP
+     * @param replica    read replica, or null when reads stay on the workload pools
+     * @param lagMonitor replica health, or null without a replica
+     */
+    public ReadWriteRoutingDataSource(Map<Workload, DataSource> pools, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        if (!pools.containsKey(Workload.OLTP)) {
+            throw new IllegalArgumentException("An OLTP pool is required");
+        }
+        this.pools = new EnumMap<>(pools);
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        Map<Object, Object> targets = new HashMap<>(this.pools);
+        if (replica != null) {
+            targets.put(Route.REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.pools.get(Workload.OLTP));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? Route.REPLICA : Workload.current();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                lagMonitor.markUnavailable(e);
+            }
+        }
+        return workloadPool().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                lagMonitor.markUnavailable(e);
+            }
+        }
+        return workloadPool().getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        return replica != null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isReplicaUsable();
+    }
+
+    private DataSource workloadPool() {
+        return pools.getOrDefault(Workload.current(), pools.get(Workload.OLTP));
+    }
+}
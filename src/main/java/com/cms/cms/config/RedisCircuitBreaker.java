@@ -0,0 +1,155 @@
+package com.cms.cms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker shared by everything that talks to Redis.
+ * After a run of consecutive failures the circuit opens and callers go straight to their
+ * local fallback instead of each waiting for the command timeout. Once the open period has
+ * passed a single probe call is let through; if it succeeds the circuit closes again.
+ */
+@Component
+public class RedisCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Value("${app.redis.circuit-breaker.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${app.redis.circuit-breaker.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> recoveryTasks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Run a Redis call, or the fallback when the circuit is open or the call fails
+     */
+    public <T> T call(Supplier<T> redisCall, Supplier<T> fallback) {
+        if (!tryAcquire()) {
+            return fallback.get();
+        }
+        try {
+            T result = redisCall.get();
+            recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            return fallback.get();
+        }
+    }
+
+    /**
+     * Run a Redis call whose result is not needed; it is skipped while the circuit is open
+     */
+    public void run(Runnable redisCall) {
+        call(() -> {
+            redisCall.run();
+            return null;
+        }, () -> null);
+    }
+
+    public State getState() {
+        if (!open.get()) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() - openedAt.get() >= openDurationMs ? State.HALF_OPEN : State.OPEN;
+    }
+
+    public boolean isOpen() {
+        return getState() == State.OPEN;
+    }
+
+    /**
+     * Register a callback for when Redis becomes reachable again, e.g. to drop local fallback state
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Register a replay of work queued while Redis was unreachable. It runs when the circuit
+     * closes and again on every replay interval while it is closed, which also covers work queued
+     * by a failed call that did not open the circuit.
+     */
+    public void onRecovery(Runnable task) {
+        recoveryTasks.add(task);
+        closeListeners.add(task);
+    }
+
+    @Scheduled(fixedDelayString = "${app.redis.circuit-breaker.replay-interval-ms:5000}")
+    public void replayQueued() {
+        if (getState() != State.CLOSED) {
+            return;
+        }
+        runAll(recoveryTasks);
+    }
+
+    private boolean tryAcquire() {
+        State state = getState();
+        if (state == State.CLOSED) {
+            return true;
+        }
+        // Half open: only one caller probes Redis, everyone else keeps using the fallback
+        return state == State.HALF_OPEN && probeInFlight.compareAndSet(false, true);
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (open.get()) {
+            probeInFlight.set(false);
+            if (open.compareAndSet(true, false)) {
+                logger.info("Redis circuit closed, Redis is reachable again");
+                runAll(closeListeners);
+            }
+        }
+    }
+
+    private void runAll(List<Runnable> listeners) {
+        for (Runnable listener : new ArrayList<>(listeners)) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                logger.warn("Redis circuit listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void recordFailure(RuntimeException e) {
+        if (open.get()) {
+            // Failed probe, stay open for another full period
+            openedAt.set(System.currentTimeMillis());
+            probeInFlight.set(false);
+            logger.debug("Redis probe failed: {}", e.getMessage());
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+            if (open.compareAndSet(false, true)) {
+                logger.error("Redis circuit opened after {} consecutive failures, using local fallbacks for {} ms: {}",
+                        consecutiveFailures.get(), openDurationMs, e.getMessage());
+            }
+        } else {
+            logger.warn("Redis call failed: {}", e.getMessage());
+        }
+    }
+}
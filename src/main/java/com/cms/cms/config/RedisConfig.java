@@ -1,6 +1,14 @@
 package com.cms.cms.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,9 +16,16 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -22,6 +37,8 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -37,16 +54,123 @@ public class RedisConfig {
     @Value("${spring.redis.password:}")
     private String redisPassword;
 
+    @Value("${spring.redis.database:0}")
+    private int database;
+
     @Value("${spring.redis.timeout:2000}")
     private int timeout;
 
+    @Value("${spring.redis.connect-timeout:1000}")
+    private int connectTimeout;
+
+    // Topology: leave both empty for a single node
+    @Value("${spring.redis.sentinel.master:}")
+    private String sentinelMaster;
+
+    @Value("${spring.redis.sentinel.nodes:}")
+    private List<String> sentinelNodes;
+
+    @Value("${spring.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    @Value("${spring.redis.cluster.max-redirects:3}")
+    private int clusterMaxRedirects;
+
+    // Connection pooling; when disabled all commands share one multiplexed connection
+    @Value("${spring.redis.lettuce.pool.enabled:false}")
+    private boolean poolEnabled;
+
+    @Value("${spring.redis.lettuce.pool.max-active:8}")
+    private int poolMaxActive;
+
+    @Value("${spring.redis.lettuce.pool.max-idle:8}")
+    private int poolMaxIdle;
+
+    @Value("${spring.redis.lettuce.pool.min-idle:0}")
+    private int poolMinIdle;
+
+    @Value("${spring.redis.lettuce.pool.max-wait:-1ms}")
+    private Duration poolMaxWait;
+
+    @Value("${spring.redis.lettuce.shutdown-timeout:100ms}")
+    private Duration shutdownTimeout;
+
+    @Value("${app.redis.auto-reconnect:true}")
+    private boolean autoReconnect;
+
+    // Commands queued per connection before new ones are rejected instead of piling up in memory
+    @Value("${app.redis.request-queue-size:10000}")
+    private int requestQueueSize;
+
     @Bean
     public LettuceConnectionFactory redisConnectionFactory() {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(redisConfiguration(), lettuceClientConfiguration());
+        // Pooled mode hands each operation its own connection; otherwise use the shared one
+        factory.setShareNativeConnection(!poolEnabled);
+        return factory;
+    }
+
+    private RedisConfiguration redisConfiguration() {
+        RedisPassword password = redisPassword.isEmpty() ? RedisPassword.none() : RedisPassword.of(redisPassword);
+
+        if (!clusterNodes.isEmpty()) {
+            RedisClusterConfiguration config = new RedisClusterConfiguration(clusterNodes);
+            config.setMaxRedirects(clusterMaxRedirects);
+            config.setPassword(password);
+            return config;
+        }
+
+        if (!sentinelMaster.isEmpty()) {
+            RedisSentinelConfiguration config = new RedisSentinelConfiguration(sentinelMaster, new HashSet<>(sentinelNodes));
+            config.setDatabase(database);
+            config.setPassword(password);
+            return config;
+        }
+
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
-        if (!redisPassword.isEmpty()) {
-            config.setPassword(redisPassword);
+        config.setDatabase(database);
+        config.setPassword(password);
+        return config;
+    }
+
+    private LettuceClientConfiguration lettuceClientConfiguration() {
+        SocketOptions socketOptions = SocketOptions.builder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .keepAlive(true)
+                .build();
+
+        ClientOptions.Builder clientOptions = clusterNodes.isEmpty()
+                ? ClientOptions.builder()
+                : ClusterClientOptions.builder()
+                        .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                                .enableAllAdaptiveRefreshTriggers()
+                                .enablePeriodicRefresh(Duration.ofMinutes(1))
+                                .build());
+        clientOptions
+                .autoReconnect(autoReconnect)
+                .requestQueueSize(requestQueueSize)
+                // Fail fast while disconnected instead of buffering commands until reconnect
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .socketOptions(socketOptions)
+                .timeoutOptions(TimeoutOptions.enabled(Duration.ofMillis(timeout)));
+
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder;
+        if (poolEnabled) {
+            GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+            poolConfig.setMaxTotal(poolMaxActive);
+            poolConfig.setMaxIdle(poolMaxIdle);
+            poolConfig.setMinIdle(poolMinIdle);
+            poolConfig.setMaxWait(poolMaxWait);
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        } else {
+            builder = LettuceClientConfiguration.builder();
         }
-        return new LettuceConnectionFactory(config);
+
+        return builder
+                .commandTimeout(Duration.ofMillis(timeout))
+                .shutdownTimeout(shutdownTimeout)
+                .clientOptions(clientOptions.build())
+                .build();
     }
 
     @Bean
@@ -68,8 +192,18 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Pub/sub listener container, used to replicate token revocations between instances
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisCircuitBreaker circuitBreaker) {
         // Create custom Jackson2JsonRedisSerializer with type information
         ObjectMapper objectMapper = createObjectMapper();
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
@@ -90,10 +224,14 @@ public class RedisConfig {
         cacheConfigurations.put("userDetails", defaultConfig.entryTtl(Duration.ofHours(1)));
         cacheConfigurations.put("jwtTokens", defaultConfig.entryTtl(Duration.ofHours(24)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // @Cacheable methods become plain method calls while Redis is unavailable
+        return new CircuitBreakingCacheManager(redisCacheManager, circuitBreaker);
     }
 
     private ObjectMapper createObjectMapper() {
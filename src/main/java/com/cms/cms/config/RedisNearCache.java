@@ -0,0 +1,179 @@
+package com.cms.cms.config;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.support.caching.CacheAccessor;
+import io.lettuce.core.support.caching.CacheFrontend;
+import io.lettuce.core.support.caching.ClientSideCaching;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in client-side cache for a few hot keys, using Redis server-assisted tracking (RESP3).
+ * Reads of the configured keys are served from local memory and Redis pushes an invalidation
+ * whenever one of them changes, so the local copy never outlives the server value.
+ * All other keys, and every key when the feature is off, go straight to the RedisTemplate.
+ */
+@Component
+public class RedisNearCache {
+    private static final Logger logger = LoggerFactory.getLogger(RedisNearCache.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${app.redis.client-side-caching.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.redis.client-side-caching.keys:products:all:available,dashboard:summary}")
+    private List<String> cachedKeys;
+
+    @Value("${spring.redis.host:localhost}")
+    private String redisHost;
+
+    @Value("${spring.redis.port:6379}")
+    private int redisPort;
+
+    @Value("${spring.redis.password:}")
+    private String redisPassword;
+
+    @Value("${spring.redis.database:0}")
+    private int database;
+
+    @Value("${spring.redis.timeout:2000}")
+    private int timeout;
+
+    @Value("${spring.redis.sentinel.master:}")
+    private String sentinelMaster;
+
+    @Value("${spring.redis.sentinel.nodes:}")
+    private List<String> sentinelNodes;
+
+    @Value("${spring.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    private final Map<String, byte[]> localValues = new ConcurrentHashMap<>();
+    private Set<String> trackedKeys = Set.of();
+    private volatile RedisClient client;
+    private volatile StatefulRedisConnection<String, byte[]> connection;
+    private volatile CacheFrontend<String, byte[]> frontend;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (!clusterNodes.isEmpty()) {
+            // Tracking is per connection, and a single connection cannot see every cluster shard
+            logger.warn("Client-side caching is not supported with Redis Cluster, reading through to Redis");
+            return;
+        }
+
+        try {
+            RedisURI.Builder uri;
+            if (!sentinelMaster.isEmpty()) {
+                uri = RedisURI.builder();
+                for (String node : sentinelNodes) {
+                    String[] hostAndPort = node.trim().split(":");
+                    uri.withSentinel(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+                }
+                uri.withSentinelMasterId(sentinelMaster);
+            } else {
+                uri = RedisURI.builder().withHost(redisHost).withPort(redisPort);
+            }
+            uri.withDatabase(database)
+                    .withTimeout(Duration.ofMillis(timeout));
+            if (!redisPassword.isEmpty()) {
+                uri.withPassword(redisPassword.toCharArray());
+            }
+
+            client = RedisClient.create(uri.build());
+            client.setOptions(ClientOptions.builder()
+                    .protocolVersion(ProtocolVersion.RESP3)
+                    .autoReconnect(true)
+                    .build());
+
+            // Invalidations sent while disconnected are lost, so start over on every reconnect
+            client.addListener(new RedisConnectionStateListener() {
+                @Override
+                public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+                    localValues.clear();
+                }
+
+                @Override
+                public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+                    localValues.clear();
+                    StatefulRedisConnection<String, byte[]> current = connection;
+                    if (current != null) {
+                        current.async().clientTracking(TrackingArgs.Builder.enabled());
+                    }
+                }
+            });
+
+            connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+            frontend = ClientSideCaching.enable(CacheAccessor.forMap(localValues), connection,
+                    TrackingArgs.Builder.enabled());
+            trackedKeys = new HashSet<>(cachedKeys);
+            logger.info("Redis client-side caching enabled for keys {}", trackedKeys);
+        } catch (Exception e) {
+            logger.warn("Could not enable Redis client-side caching, reading through to Redis: {}", e.getMessage());
+            shutdown();
+        }
+    }
+
+    /**
+     * Read a value, from local memory when the key is tracked
+     */
+    public Object get(String key) {
+        if (frontend == null || !trackedKeys.contains(key)) {
+            return redisTemplate.opsForValue().get(key);
+        }
+        try {
+            byte[] value = frontend.get(key);
+            return value != null ? redisTemplate.getValueSerializer().deserialize(value) : null;
+        } catch (Exception e) {
+            logger.warn("Client-side cache read failed for {}, reading through: {}", key, e.getMessage());
+            localValues.remove(key);
+            return redisTemplate.opsForValue().get(key);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (frontend != null) {
+            frontend.close();
+            frontend = null;
+        }
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        if (client != null) {
+            client.shutdown();
+            client = null;
+        }
+        localValues.clear();
+    }
+}
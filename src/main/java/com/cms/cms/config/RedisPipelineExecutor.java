@@ -0,0 +1,76 @@
+package com.cms.cms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Small helper for sending several independent Redis commands in one network round trip
+ */
+@Component
+public class RedisPipelineExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(RedisPipelineExecutor.class);
+
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * Queue the commands issued by the consumer and send them as one pipeline.
+     * Results are returned in command order, deserialized with the template's serializers.
+     */
+    public List<Object> pipeline(Consumer<RedisOperations<String, Object>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Delete all keys matching the patterns, walking the keyspace with SCAN instead of
+     * blocking Redis with KEYS, and deleting each batch of matches with a single multi-key DEL
+     */
+    public long deleteByPattern(String... patterns) {
+        long deleted = 0;
+        for (String pattern : patterns) {
+            try (Cursor<String> cursor = redisTemplate.scan(
+                    ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build())) {
+                List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == SCAN_BATCH_SIZE) {
+                        deleted += deleteKeys(batch);
+                        batch.clear();
+                    }
+                }
+                deleted += deleteKeys(batch);
+            }
+        }
+        logger.debug("Deleted {} keys matching {}", deleted, (Object) patterns);
+        return deleted;
+    }
+
+    private long deleteKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(keys);
+        return deleted != null ? deleted : 0;
+    }
+}
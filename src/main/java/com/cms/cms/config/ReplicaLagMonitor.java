@@ -0,0 +1,80 @@
+package com.cms.cms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Decides whether read-only work may go to the replica.
+ * The replica is checked on a fixed schedule: it is usable while it answers and its replay lag
+ * stays within the configured bound. A failed connection attempt on the request path marks it
+ * unusable straight away; the next successful check brings it back.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // 0 on a primary or a caught-up standby, otherwise milliseconds since the last replayed transaction
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile boolean usable;
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    /**
+     * Take the replica out of rotation until the next successful check
+     */
+    public void markUnavailable(Exception cause) {
+        if (usable) {
+            logger.warn("Read replica unavailable, routing reads to the primary: {}", cause.getMessage());
+        }
+        usable = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            long lagMs = resultSet.next() ? (long) resultSet.getDouble(1) : 0;
+            lastLagMs = lagMs;
+            usable = lagMs <= maxLagMs;
+            if (!usable && wasUsable) {
+                logger.warn("Read replica is {} ms behind (limit {} ms), routing reads to the primary", lagMs, maxLagMs);
+            }
+        } catch (Exception e) {
+            usable = false;
+            if (wasUsable) {
+                logger.warn("Read replica check failed, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        if (usable && !wasUsable) {
+            logger.info("Read replica is back in rotation (lag {} ms)", lastLagMs);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cms.cms.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-aside access to Redis guarded by the Redis circuit breaker.
+ * While Redis is unavailable, reads and writes go to a small in-process L1 cache instead,
+ * so callers fall through to the database once per key rather than on every request.
+ * The L1 is only used during an outage and is dropped as soon as Redis is back; deletes that
+ * could not reach Redis meanwhile are queued and replayed then.
+ */
+@Component
+public class ResilientRedisCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResilientRedisCache.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisNearCache redisNearCache;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Value("${app.redis.fallback-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.redis.fallback-cache.ttl-ms:60000}")
+    private long maxTtlMs;
+
+    private final Map<String, LocalEntry> localEntries = new ConcurrentHashMap<>();
+
+    // Keys and key patterns deleted while Redis was unavailable, still to be deleted there
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPatternDeletes = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        // Entries written during the outage were never invalidated in Redis, so don't keep them
+        circuitBreaker.onClose(localEntries::clear);
+        circuitBreaker.onRecovery(this::flushPendingDeletes);
+    }
+
+    public Object get(String key) {
+        return circuitBreaker.call(() -> redisNearCache.get(key), () -> getLocal(key));
+    }
+
+    public void set(String key, Object value, long ttl, TimeUnit unit) {
+        circuitBreaker.call(() -> {
+            redisTemplate.opsForValue().set(key, value, ttl, unit);
+            return null;
+        }, () -> {
+            putLocal(key, value, unit.toMillis(ttl));
+            return null;
+        });
+    }
+
+    public void delete(String key) {
+        delete(List.of(key));
+    }
+
+    public void delete(Collection<String> keys) {
+        keys.forEach(localEntries::remove);
+        circuitBreaker.call(() -> redisTemplate.delete(keys), () -> {
+            pendingDeletes.addAll(keys);
+            return null;
+        });
+    }
+
+    /**
+     * Delete every Redis key matching the patterns (e.g. "products:*"), queueing the patterns
+     * when Redis cannot be reached. Local entries are left to {@link #deleteLocalByPrefix}.
+     */
+    public void deleteByPattern(String... patterns) {
+        circuitBreaker.call(() -> redisPipelineExecutor.deleteByPattern(patterns), () -> {
+            pendingPatternDeletes.addAll(List.of(patterns));
+            return null;
+        });
+    }
+
+    /**
+     * Delete in Redis the keys whose deletion was only applied locally during an outage
+     */
+    private void flushPendingDeletes() {
+        if (!pendingPatternDeletes.isEmpty()) {
+            List<String> patterns = new ArrayList<>(pendingPatternDeletes);
+            try {
+                redisPipelineExecutor.deleteByPattern(patterns.toArray(new String[0]));
+                patterns.forEach(pendingPatternDeletes::remove);
+                logger.info("Replayed {} pattern deletes queued during the Redis outage", patterns.size());
+            } catch (Exception e) {
+                logger.warn("Could not replay queued pattern deletes: {}", e.getMessage());
+                return;
+            }
+        }
+        if (pendingDeletes.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pendingDeletes);
+        try {
+            redisTemplate.delete(keys);
+            keys.forEach(pendingDeletes::remove);
+            logger.info("Replayed {} cache deletes queued during the Redis outage", keys.size());
+        } catch (Exception e) {
+            logger.warn("Could not replay queued cache deletes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop local entries whose key starts with the prefix; Redis keys are handled by the caller
+     */
+    public void deleteLocalByPrefix(String prefix) {
+        localEntries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private Object getLocal(String key) {
+        LocalEntry entry = localEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            localEntries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void putLocal(String key, Object value, long ttlMs) {
+        if (localEntries.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            localEntries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (localEntries.size() >= maxEntries) {
+                logger.debug("Local fallback cache full, not caching {}", key);
+                return;
+            }
+        }
+        localEntries.put(key, new LocalEntry(value, System.currentTimeMillis() + Math.min(ttlMs, maxTtlMs)));
+    }
+
+    private record LocalEntry(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.cms.cms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through loader for expensive cache entries that protects against stampedes.
+ * <ul>
+ *   <li>Concurrent misses for a key on one instance share a single computation.</li>
+ *   <li>Across instances, only the holder of a short Redis lease recomputes; the others wait
+ *       briefly for its result.</li>
+ *   <li>Entries are refreshed early with probability rising towards expiry (XFetch), weighted
+ *       by how long the last computation took, so hot keys rarely expire under load.</li>
+ * </ul>
+ * Values are stored as an envelope holding the value, its compute time and its expiry.
+ * Values read back from Redis are plain JSON structures (maps and lists), as with the
+ * other caches.
+ */
+@Component
+public class SingleFlightCacheLoader {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightCacheLoader.class);
+
+    private static final String LOCK_PREFIX = "lock:";
+    private static final String VALUE = "v";
+    private static final String COMPUTE_MS = "d";
+    private static final String EXPIRES_AT = "e";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    // Delete the lock only if we still own it
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private ResilientRedisCache redisCache;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    // XFetch beta: above 1 favours earlier refreshes, below 1 later ones
+    @Value("${app.cache.early-refresh-beta:1.0}")
+    private double beta;
+
+    @Value("${app.cache.lock-lease-ms:30000}")
+    private long lockLeaseMs;
+
+    // How long a node without the lease waits for the holder's result before computing itself
+    @Value("${app.cache.lock-wait-ms:5000}")
+    private long lockWaitMs;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Get the cached value for the key, computing it with the loader at most once per key at a time
+     */
+    public Object get(String key, long ttl, TimeUnit unit, Supplier<?> loader) {
+        Map<?, ?> entry = readEntry(key);
+        if (entry != null) {
+            if (!shouldRefreshEarly(entry) || inFlight.containsKey(key)) {
+                return entry.get(VALUE);
+            }
+            // This caller refreshes ahead of expiry; if another node already is, keep the current value
+            logger.debug("Refreshing cache entry {} ahead of expiry", key);
+            Object refreshed = load(key, ttl, unit, loader, false);
+            return refreshed != null ? refreshed : entry.get(VALUE);
+        }
+        return load(key, ttl, unit, loader, true);
+    }
+
+    private Object load(String key, long ttl, TimeUnit unit, Supplier<?> loader, boolean waitForOtherNode) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            future.complete(loadOnce(key, ttl, unit, loader, waitForOtherNode));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+        return join(future);
+    }
+
+    private Object loadOnce(String key, long ttl, TimeUnit unit, Supplier<?> loader, boolean waitForOtherNode) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        // Without Redis there is nothing to coordinate with, so every node computes for itself
+        boolean locked = circuitBreaker.call(() -> Boolean.TRUE.equals(
+                redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockLeaseMs, TimeUnit.MILLISECONDS)), () -> true);
+
+        if (!locked) {
+            if (!waitForOtherNode) {
+                return null;
+            }
+            Object value = awaitOtherNode(key);
+            if (value != null) {
+                return value;
+            }
+            logger.warn("Timed out waiting for another node to compute {}, computing locally", key);
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+            Object value = loader.get();
+            long computeMs = System.currentTimeMillis() - startedAt;
+
+            if (value != null) {
+                redisCache.set(key, envelope(value, computeMs, ttl, unit), ttl, unit);
+            }
+            return value;
+        } finally {
+            if (locked) {
+                circuitBreaker.run(() -> redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token));
+            }
+        }
+    }
+
+    /**
+     * Recompute an entry unconditionally and swap it in atomically.
+     * The new value is written under a temporary key and RENAMEd over the live one, so readers
+     * see either the old or the new value and never a miss. The caller is responsible for
+     * making sure only one node rebuilds a key at a time.
+     */
+    public Object refresh(String key, long ttl, TimeUnit unit, Supplier<?> loader) {
+        long startedAt = System.currentTimeMillis();
+        Object value = loader.get();
+        long computeMs = System.currentTimeMillis() - startedAt;
+        if (value == null) {
+            return null;
+        }
+
+        Map<String, Object> entry = envelope(value, computeMs, ttl, unit);
+        String buildKey = rebuildKey(key);
+        boolean swapped = circuitBreaker.call(() -> {
+            redisPipelineExecutor.pipeline(operations -> {
+                operations.opsForValue().set(buildKey, entry, ttl, unit);
+                operations.rename(buildKey, key);
+            });
+            return true;
+        }, () -> false);
+
+        if (!swapped) {
+            // Redis is unavailable; keep the value in the local fallback cache
+            redisCache.set(key, entry, ttl, unit);
+        }
+        logger.debug("Rebuilt cache entry {} in {} ms", key, computeMs);
+        return value;
+    }
+
+    private Map<String, Object> envelope(Object value, long computeMs, long ttl, TimeUnit unit) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(VALUE, value);
+        entry.put(COMPUTE_MS, computeMs);
+        entry.put(EXPIRES_AT, System.currentTimeMillis() + unit.toMillis(ttl));
+        return entry;
+    }
+
+    private Object awaitOtherNode(String key) {
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Map<?, ?> entry = readEntry(key);
+            if (entry != null) {
+                return entry.get(VALUE);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * XFetch: recompute early when now - delta * beta * ln(rand) passes the expiry time
+     */
+    private boolean shouldRefreshEarly(Map<?, ?> entry) {
+        long expiresAt = ((Number) entry.get(EXPIRES_AT)).longValue();
+        long computeMs = ((Number) entry.get(COMPUTE_MS)).longValue();
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        return System.currentTimeMillis() - computeMs * beta * Math.log(random) >= expiresAt;
+    }
+
+    private Map<?, ?> readEntry(String key) {
+        Object cached = redisCache.get(key);
+        if (cached instanceof Map<?, ?> entry
+                && entry.get(EXPIRES_AT) instanceof Number
+                && entry.get(COMPUTE_MS) instanceof Number) {
+            return entry;
+        }
+        return null;
+    }
+
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Temporary key to build a value in before renaming it onto the key. RENAME needs both keys
+     * in the same Redis Cluster slot, so the key is used as the hash tag unless it has one already.
+     */
+    public static String rebuildKey(String key) {
+        int open = key.indexOf('{');
+        boolean tagged = open >= 0 && key.indexOf('}', open + 1) > open + 1;
+        return (tagged ? key : "{" + key + "}") + ":rebuild:" + UUID.randomUUID();
+    }
+}
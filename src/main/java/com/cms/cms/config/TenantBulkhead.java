@@ -0,0 +1,113 @@
+package com.cms.cms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many calls a single organization can have in flight at once.
+ * A caller that cannot get a permit within the wait time is rejected with
+ * {@link BulkheadFullException}, so one tenant's burst queues against its own limit instead of
+ * taking every database connection and worker thread from the others.
+ * <p>
+ * Metrics: tenant.bulkhead.active (calls in flight), tenant.bulkhead.saturated (organizations
+ * at their limit), tenant.bulkhead.wait (time spent waiting for a permit) and
+ * tenant.bulkhead.rejected (calls turned away).
+ */
+@Component
+public class TenantBulkhead {
+    private static final Logger logger = LoggerFactory.getLogger(TenantBulkhead.class);
+
+    @Value("${app.bulkhead.tenant.max-concurrent-calls:4}")
+    private int maxConcurrentCalls;
+
+    @Value("${app.bulkhead.tenant.max-wait-ms:250}")
+    private long maxWaitMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Integer, Semaphore> permits = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private Timer waitTimer;
+    private Counter rejected;
+
+    /**
+     * Thrown when an organization already has its maximum number of calls in flight
+     */
+    public static class BulkheadFullException extends RuntimeException {
+        public BulkheadFullException(Integer orgId) {
+            super("Too many concurrent requests for organization " + orgId + ", please retry shortly");
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("tenant.bulkhead.active", active, AtomicInteger::get)
+                .description("Organization-scoped calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("tenant.bulkhead.saturated", permits, map ->
+                        map.values().stream().filter(semaphore -> semaphore.availablePermits() == 0).count())
+                .description("Organizations currently at their concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("tenant.bulkhead.limit", () -> maxConcurrentCalls)
+                .description("Concurrent calls allowed per organization")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("tenant.bulkhead.wait")
+                .description("Time spent waiting for a per-organization permit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        rejected = Counter.builder("tenant.bulkhead.rejected")
+                .description("Calls rejected because the organization was at its limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the call within the organization's concurrency limit
+     */
+    public <T> T call(Integer orgId, Supplier<T> call) {
+        if (orgId == null) {
+            return call.get();
+        }
+
+        Semaphore semaphore = permits.computeIfAbsent(orgId, id -> new Semaphore(maxConcurrentCalls, true));
+        long startedAt = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(orgId);
+        } finally {
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            logger.warn("Rejected call for organization {}: {} calls already in flight", orgId, maxConcurrentCalls);
+            throw new BulkheadFullException(orgId);
+        }
+
+        active.incrementAndGet();
+        try {
+            return call.get();
+        } finally {
+            active.decrementAndGet();
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.cms.cms.config;
+
+/**
+ * The kind of work the current thread is doing, used to pick a connection pool so that
+ * dashboards, exports and scheduled jobs cannot exhaust the connections order writes and
+ * logins need. Threads start as OLTP.
+ */
+public enum Workload {
+    OLTP, REPORTING, BACKGROUND;
+
+    private static final ThreadLocal<Workload> CURRENT = ThreadLocal.withInitial(() -> OLTP);
+
+    public static Workload current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Switch the current thread to this workload, returning the one to restore afterwards
+     */
+    public Workload enter() {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    public static void restore(Workload previous) {
+        CURRENT.set(previous);
+    }
+
+    /**
+     * Wrap a task so that it runs as this workload on whichever thread executes it
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            Workload previous = enter();
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
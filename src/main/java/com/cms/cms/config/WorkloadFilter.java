@@ -0,0 +1,56 @@
+package com.cms.cms.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Marks dashboard and export requests as REPORTING so their queries use the reporting pool;
+ * all other requests stay OLTP.
+ */
+@Component
+@Order(0)
+public class WorkloadFilter extends OncePerRequestFilter {
+
+    /**
+     * Path prefixes served from the reporting pool
+     */
+    private static final String[] REPORTING_PATHS = {
+            "/api/admin/dashboard",
+            "/api/org/dashboard/"
+    };
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isReporting(request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Workload previous = Workload.REPORTING.enter();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Workload.restore(previous);
+        }
+    }
+
+    private boolean isReporting(String path) {
+        if (path.endsWith("/export")) {
+            return true;
+        }
+        for (String prefix : REPORTING_PATHS) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,10 @@
 package com.cms.cms.controller;
 
+import com.cms.cms.config.TenantBulkhead;
 import com.cms.cms.model.Order;
+import com.cms.cms.service.IdempotencyService;
+import com.cms.cms.service.OrderExportService;
+import com.cms.cms.service.OrderSearchService;
 import com.cms.cms.service.OrgOrderService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -11,11 +15,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
@@ -29,6 +35,15 @@ public class AdminOrderController {
     @Autowired
     private OrgOrderService orgOrderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
     /**
      * Get orders for company with pagination and filtering
      */
@@ -93,6 +108,9 @@ public class AdminOrderController {
                     ordersPage.getNumberOfElements(), companyId);
 
             return ResponseEntity.ok(ordersPage);
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting orders for company ID: {}", companyId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -100,6 +118,58 @@ public class AdminOrderController {
         }
     }
 
+    /**
+     * Stream the full order history of a company as CSV or NDJSON
+     */
+    @GetMapping("/company/{companyId}/orders/export")
+    public ResponseEntity<?> exportOrdersForCompany(
+            @PathVariable Long companyId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Exporting orders for company ID: {} as {}", companyId, format);
+
+        if (companyId == null || companyId <= 0) {
+            logger.warn("Invalid company ID: {}", companyId);
+            return ResponseEntity.badRequest().body(createErrorResponse("Invalid company ID"));
+        }
+
+        OrderExportService.Format exportFormat = OrderExportService.parseFormat(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Unsupported export format, use csv or ndjson"));
+        }
+
+        Integer orgId = Math.toIntExact(companyId);
+        return orderExportService.exportResponse(orgId, exportFormat, acceptEncoding, "orders-" + orgId);
+    }
+
+    /**
+     * Search orders by order id, PRN number, product name or brand, best matches first.
+     * Every word must match the start of a word in one of those fields.
+     */
+    @GetMapping("/orders/search")
+    public ResponseEntity<?> searchOrders(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer orgId,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Searching orders for '{}' (orgId: {}, limit: {})", query, orgId, limit);
+        try {
+            if (query == null || query.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Search query is required"));
+            }
+            if (limit <= 0 || limit > OrderSearchService.MAX_RESULTS) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Limit must be between 1 and " + OrderSearchService.MAX_RESULTS));
+            }
+
+            List<Order> orders = orderSearchService.search(orgId, query, limit);
+            return ResponseEntity.ok(orders);
+        } catch (Exception e) {
+            logger.error("Error searching orders for '{}'", query, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
     // Get specific order details (existing method)
     @GetMapping("/orders/{orgId}/{orderId}")
     public ResponseEntity<?> getOrderDetails(@PathVariable Long orgId, @PathVariable Long orderId) {
@@ -117,6 +187,9 @@ public class AdminOrderController {
                         .body(createErrorResponse("Order not found"));
             }
             return ResponseEntity.ok(order);
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting order details for orderId: {}, orgId: {}", orderId, orgId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -126,7 +199,15 @@ public class AdminOrderController {
 
     // Submit new order (existing method)
     @PostMapping("/orders/submit")
-    public ResponseEntity<?> submitOrders(@Valid @RequestBody Order order) {
+    public ResponseEntity<?> submitOrders(
+            @Valid @RequestBody Order order,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        String scope = "admin-order:" + (principal != null ? principal.getName() : "anonymous");
+        return idempotencyService.execute(scope, idempotencyKey, order, () -> processOrderSubmission(order));
+    }
+
+    private ResponseEntity<?> processOrderSubmission(Order order) {
         logger.info("Submitting new order for orgId: {}", order.getOrgId());
         try {
             // Make sure orgId is explicitly set in the payload
@@ -147,6 +228,9 @@ public class AdminOrderController {
             Order newOrder = orgOrderService.createOrder(order, order.getOrgId());
             logger.info("Order created successfully with ID: {}", newOrder.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(newOrder);
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error submitting order for orgId: {}", order.getOrgId(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -203,6 +287,9 @@ public class AdminOrderController {
 
             // Return the complete updated order to the frontend
             return ResponseEntity.ok(updatedOrder);
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (SecurityException e) {
             // Handle authorization errors specifically
             logger.error("Security exception updating order: {}", e.getMessage());
@@ -0,0 +1,115 @@
+package com.cms.cms.controller;
+
+import com.cms.cms.dto.ReportJobDTO;
+import com.cms.cms.model.ReportJob;
+import com.cms.cms.service.ReportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+public class AdminReportController {
+    private static final Logger logger = LoggerFactory.getLogger(AdminReportController.class);
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    /**
+     * Submit a report; returns the job to poll, which may be an existing one for the same spec
+     */
+    @PostMapping
+    public ResponseEntity<?> submitReport(@RequestBody ReportJobDTO.Request request, Principal principal) {
+        logger.info("Report requested: {}", request);
+        try {
+            ReportJob job = reportJobService.submit(request, principal != null ? principal.getName() : "anonymous");
+            return ResponseEntity.status(job.getStatus() == ReportJob.Status.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error submitting report", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * The 50 most recent report jobs
+     */
+    @GetMapping
+    public ResponseEntity<?> getRecentReports() {
+        try {
+            return ResponseEntity.ok(reportJobService.getRecentJobs());
+        } catch (Exception e) {
+            logger.error("Error fetching report jobs", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Poll the status of a report job
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getReport(@PathVariable Long jobId) {
+        try {
+            Optional<ReportJob> job = reportJobService.getJob(jobId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Report not found"));
+            }
+            return ResponseEntity.ok(job.get());
+        } catch (Exception e) {
+            logger.error("Error fetching report job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Download the result of a completed report
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> downloadReport(@PathVariable Long jobId) {
+        try {
+            Optional<ReportJob> job = reportJobService.getJob(jobId);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Report not found"));
+            }
+
+            Path file = reportJobService.getResultFile(job.get());
+            boolean csv = job.get().getFormat() == ReportJob.Format.CSV;
+            String filename = "report-" + jobId + "-" + job.get().getType().name().toLowerCase(Locale.ROOT).replace('_', '-')
+                    + (csv ? ".csv" : ".json");
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_JSON)
+                    .body(new FileSystemResource(file));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error downloading report {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
@@ -70,8 +70,8 @@ public class AuthController {
         String userType = determineUserType(userDetails);
         Authentication authentication = createAuthentication(userDetails);
 
-        // Generate token and cache it
-        String jwt = tokenCacheService.generateAndCacheToken(authentication, userType);
+        // Generate token
+        String jwt = tokenCacheService.generateToken(authentication, userType);
 
         logger.info("{} authentication successful for username: {}", userType, loginRequest.getUsername());
 
@@ -111,15 +111,8 @@ public class AuthController {
                         .body(new ErrorResponse("TOKEN_INVALID", "Token is invalid or expired"));
             }
 
-            // First try to get username from cache for better performance
-            String username = tokenCacheService.getUsernameFromCache(token);
-            String userType = tokenCacheService.getUserTypeFromCache(token);
-
-            // If not in cache, fallback to JWT extraction
-            if (username == null) {
-                username = jwtTokenProvider.getUsernameFromToken(token);
-                userType = jwtTokenProvider.getUserTypeFromToken(token);
-            }
+            String username = jwtTokenProvider.getUsernameFromToken(token);
+            String userType = jwtTokenProvider.getUserTypeFromToken(token);
 
             logger.info("Token valid for refresh, username: {}, userType: {}", username, userType);
 
@@ -137,8 +130,8 @@ public class AuthController {
             // Blacklist the old token
             tokenCacheService.blacklistToken(token);
 
-            // Generate and cache new token
-            String newToken = tokenCacheService.generateAndCacheToken(authentication, userType);
+            // Generate new token
+            String newToken = tokenCacheService.generateToken(authentication, userType);
 
             logger.info("Token refresh successful for user: {}", username);
 
@@ -178,25 +171,14 @@ public class AuthController {
                         .body(new ErrorResponse("TOKEN_INVALID", "Token is invalid or expired"));
             }
 
-            // Check if token is in cache first (faster verification)
-            boolean isTokenCached = tokenCacheService.isTokenCached(token);
-
-            // If not in cache, validate using JWT verification
-            if (!isTokenCached && !jwtTokenProvider.validateToken(token)) {
+            if (!jwtTokenProvider.validateToken(token)) {
                 logger.warn("Invalid token provided for verification");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("TOKEN_INVALID", "Token is invalid or expired"));
             }
 
-            // Try to get information from cache first
-            String username = tokenCacheService.getUsernameFromCache(token);
-            String userType = tokenCacheService.getUserTypeFromCache(token);
-
-            // If not in cache, extract from JWT
-            if (username == null) {
-                username = jwtTokenProvider.getUsernameFromToken(token);
-                userType = jwtTokenProvider.getUserTypeFromToken(token);
-            }
+            String username = jwtTokenProvider.getUsernameFromToken(token);
+            String userType = jwtTokenProvider.getUserTypeFromToken(token);
 
             // Get expiration date from JWT
             Date expirationDate = jwtTokenProvider.getExpirationDateFromToken(token);
@@ -210,7 +192,6 @@ public class AuthController {
             response.put("userType", userType);
             response.put("expires", expirationDate.getTime());
             response.put("isValid", true);
-            response.put("isCached", isTokenCached);
 
             return ResponseEntity.ok(response);
 
@@ -233,12 +214,8 @@ public class AuthController {
         if (jwt != null && !jwt.isEmpty()) {
             try {
                 // Extract username if possible for logging purposes
-                String username = null;
                 try {
-                    username = tokenCacheService.getUsernameFromCache(jwt);
-                    if (username == null) {
-                        username = jwtTokenProvider.getUsernameFromToken(jwt);
-                    }
+                    String username = jwtTokenProvider.getUsernameFromToken(jwt);
                     logger.info("Logging out user: {}", username);
                 } catch (Exception e) {
                     logger.warn("Could not extract username from token during logout");
@@ -260,6 +237,32 @@ public class AuthController {
         return ResponseEntity.ok(createSuccessResponse("Logged out"));
     }
 
+    /**
+     * Log out from every device by invalidating all tokens issued to the current user
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAllSessions(HttpServletRequest request) {
+        String jwt = getJwtFromRequest(request);
+        logger.info("Received logout-all request");
+
+        if (jwt == null || !jwtTokenProvider.validateToken(jwt)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("TOKEN_INVALID", "Token is invalid or expired"));
+        }
+
+        try {
+            tokenCacheService.invalidateAllTokens(jwt);
+            SecurityContextHolder.clearContext();
+
+            logger.info("All sessions logged out for user: {}", jwtTokenProvider.getUsernameFromToken(jwt));
+            return ResponseEntity.ok(createSuccessResponse("Logged out from all sessions"));
+        } catch (Exception e) {
+            logger.error("Error during logout-all process", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("LOGOUT_ALL_ERROR", "Could not log out other sessions, please retry"));
+        }
+    }
+
     // Helper methods remain the same
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
@@ -4,6 +4,8 @@ import com.cms.cms.Repository.NewOrgRepository;
 import com.cms.cms.Repository.OrderRepository;
 import com.cms.cms.model.NewOrg;
 import com.cms.cms.model.Order;
+import com.cms.cms.model.OrderStatus;
+import com.cms.cms.service.OrgOrderStatsService;
 import com.cms.cms.service.OrganizationUserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +20,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/org")
@@ -31,6 +32,9 @@ public class OrgDashboardController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrgOrderStatsService orgOrderStatsService;
+
     @PreAuthorize("hasRole('ORGANIZATION')")
     @GetMapping("/dashboard/profile")
     public ResponseEntity<?> getOrgProfile() {
@@ -87,16 +91,8 @@ public class OrgDashboardController {
         // Get organization ID
         Integer orgId = userDetails.getOrgId();
 
-        // Fetch organization orders
-        List<Order> orders = orderRepository.findByOrgId(orgId);
-
-        // If no orders, generate sample data for testing
-        if (orders == null || orders.isEmpty()) {
-            orders = generateSampleOrders(orgId, 10);
-        }
-
-        // Calculate statistics
-        Map<String, Object> stats = calculateStats(orders);
+        // Counters are maintained in Redis as orders change
+        Map<String, Object> stats = orgOrderStatsService.getStats(orgId);
 
         logger.info("Generated dashboard stats for organization ID: {}", orgId);
         return ResponseEntity.ok(stats);
@@ -109,40 +105,6 @@ public class OrgDashboardController {
         return getOrgOrders();
     }
 
-    /**
-     * Calculate statistics from orders
-     */
-    private Map<String, Object> calculateStats(List<Order> orders) {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Calculate total orders
-        int totalOrders = orders.size();
-        stats.put("totalOrders", totalOrders);
-
-        // Calculate pending orders
-        long pendingOrders = orders.stream()
-                .filter(order -> "Pending".equalsIgnoreCase(order.getStatus()) ||
-                        "Processing".equalsIgnoreCase(order.getStatus()))
-                .count();
-        stats.put("pendingOrders", pendingOrders);
-
-        // Calculate completed orders
-        long completedOrders = orders.stream()
-                .filter(order -> "Completed".equalsIgnoreCase(order.getStatus()) ||
-                        "Delivered".equalsIgnoreCase(order.getStatus()))
-                .count();
-        stats.put("completedOrders", completedOrders);
-
-        // Calculate total sales amount
-        BigDecimal totalAmount = orders.stream()
-                .filter(order -> order.getTotalAmount() != null)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.put("totalAmount", totalAmount);
-
-        return stats;
-    }
-
     /**
      * Generate sample orders for testing
      */
@@ -152,7 +114,8 @@ public class OrgDashboardController {
         String[] productNames = {"Pain Relief Tablet", "Cough Syrup", "Antibiotic Capsule", "Vitamin Complex",
                 "Blood Pressure Medicine", "Antacid", "Insulin", "Allergy Medication"};
         String[] brands = {"Pharma Plus", "MediLife", "HealthCare", "VitaWell", "MediCorp"};
-        String[] statuses = {"Pending", "Processing", "Completed", "Shipped", "Delivered"};
+        OrderStatus[] statuses = {OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.COMPLETED,
+                OrderStatus.SHIPPED, OrderStatus.DELIVERED};
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
 
         for (int i = 0; i < count; i++) {
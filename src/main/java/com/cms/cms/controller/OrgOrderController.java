@@ -2,19 +2,26 @@ package com.cms.cms.controller;
 
 import com.cms.cms.Repository.OrderRepository;
 import com.cms.cms.Repository.NewOrgRepository;
+import com.cms.cms.config.TenantBulkhead;
 import com.cms.cms.dto.OrgOrderDTO;
 import com.cms.cms.dto.ProductDTO;
 import com.cms.cms.model.NewOrg;
 import com.cms.cms.model.Order;
+import com.cms.cms.model.OrderStatus;
 import com.cms.cms.model.OrderItem;
 import com.cms.cms.model.Product;
+import com.cms.cms.service.IdempotencyService;
+import com.cms.cms.service.OrderExportService;
+import com.cms.cms.service.OrderImportService;
 import com.cms.cms.service.OrgOrderService;
 import com.cms.cms.service.OrganizationUserDetails;
 import com.cms.cms.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -42,6 +49,15 @@ public class OrgOrderController {
     @Autowired
     private NewOrgRepository organizationRepository;
 
+    @Autowired
+    private OrderImportService orderImportService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * Get all available products
      * This endpoint returns a list of products that are available for ordering
@@ -83,11 +99,22 @@ public class OrgOrderController {
     }
     /**
      * Submit a new order
-     * This endpoint allows organizations to submit new orders with multiple items
+     * This endpoint allows organizations to submit new orders with multiple items.
+     * An optional Idempotency-Key header makes client retries return the original result.
      */
     @PreAuthorize("hasRole('ORGANIZATION')")
     @PostMapping("/orders/submit")
-    public ResponseEntity<?> submitOrder(@Valid @RequestBody OrgOrderDTO orderDTO) {
+    public ResponseEntity<?> submitOrder(
+            @Valid @RequestBody OrgOrderDTO orderDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        OrganizationUserDetails userDetails = (OrganizationUserDetails) authentication.getPrincipal();
+
+        return idempotencyService.execute("org-order:" + userDetails.getOrgId(), idempotencyKey, orderDTO,
+                () -> processOrderSubmission(orderDTO));
+    }
+
+    private ResponseEntity<?> processOrderSubmission(OrgOrderDTO orderDTO) {
         try {
             logger.info("Received order submission request");
 
@@ -117,7 +144,7 @@ public class OrgOrderController {
             // Create a new Order from the DTO
             Order order = new Order();
             order.setOrgId(orgId);
-            order.setStatus("Pending");
+            order.setStatus(OrderStatus.PENDING);
             order.setTotalAmount(orderDTO.getTotalAmount());
             order.setShippingAddress(orderDTO.getShippingAddress());
 
@@ -125,23 +152,61 @@ public class OrgOrderController {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
             order.setDate(LocalDateTime.now().format(formatter));
 
-            // Handle multiple items in the order
-            if (orderDTO.getItems().size() == 1) {
-                // Single item order - set properties directly on the order
-                OrgOrderDTO.OrderItemDTO item = orderDTO.getItems().get(0);
-                order.setProductName(item.getProductName());
-                order.setBatchSize(item.getBatchSize());
-                order.setUnitType(item.getUnitType());
-                order.setQuantity(item.getQuantity());
-                order.setPrice(item.getMrp());
-
-                // Calculate total amount if not provided
-                if (order.getTotalAmount() == null && item.getMrp() != null && item.getQuantity() != null) {
-                    BigDecimal totalAmount = item.getMrp().multiply(new BigDecimal(item.getQuantity()));
-                    order.setTotalAmount(totalAmount);
+            // Build one persisted line per submitted item; line totals are computed once here
+            BigDecimal itemsTotal = BigDecimal.ZERO;
+            Map<Long, BigDecimal> catalogPrices = null;
+            int totalQuantity = 0;
+            for (OrgOrderDTO.OrderItemDTO itemDTO : orderDTO.getItems()) {
+                if (itemDTO.getProductName() == null
+                        || itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("Each item requires a product name and positive quantity"));
                 }
+                totalQuantity += itemDTO.getQuantity();
+
+                // An item may arrive without an MRP; fall back to the catalog price of a product
+                // assigned to this organization, and reject the order when neither exists
+                BigDecimal unitPrice = itemDTO.getMrp();
+                if (unitPrice == null) {
+                    if (catalogPrices == null) {
+                        catalogPrices = catalogPrices(orgId);
+                    }
+                    unitPrice = itemDTO.getProductId() != null ? catalogPrices.get(itemDTO.getProductId()) : null;
+                }
+                if (unitPrice == null) {
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("No price available for product: " + itemDTO.getProductName()));
+                }
+
+                OrderItem orderItem = new OrderItem();
+                orderItem.setProductId(itemDTO.getProductId());
+                orderItem.setProductName(itemDTO.getProductName());
+                orderItem.setQuantity(itemDTO.getQuantity());
+                orderItem.setUnitPrice(unitPrice);
+                orderItem.setLineTotal(unitPrice.multiply(BigDecimal.valueOf(itemDTO.getQuantity())));
+                orderItem.setProductDescription("Batch Size: " + itemDTO.getBatchSize() +
+                        ", Unit Type: " + itemDTO.getUnitType());
+                order.addItem(orderItem);
+
+                itemsTotal = itemsTotal.add(orderItem.getLineTotal());
+            }
+
+            // Calculate total amount if not provided
+            if (order.getTotalAmount() == null) {
+                order.setTotalAmount(itemsTotal);
+            }
+
+            // Keep the flat summary columns that list views and dashboards read
+            OrgOrderDTO.OrderItemDTO firstItem = orderDTO.getItems().get(0);
+            order.setBatchSize(firstItem.getBatchSize());
+            order.setUnitType(firstItem.getUnitType());
+            order.setQuantity(totalQuantity);
+
+            if (orderDTO.getItems().size() == 1) {
+                order.setProductName(firstItem.getProductName());
+                order.setPrice(firstItem.getMrp());
             } else {
-                // Multiple items - create a summary product name and set the first item's details
+                // Multiple items - create a summary product name, per-line prices live on the items
                 StringBuilder productNameBuilder = new StringBuilder();
                 for (int i = 0; i < orderDTO.getItems().size(); i++) {
                     OrgOrderDTO.OrderItemDTO item = orderDTO.getItems().get(i);
@@ -154,60 +219,18 @@ public class OrgOrderController {
                         break;
                     }
                 }
-
-                // Set the summary product name
                 order.setProductName(productNameBuilder.toString());
-
-                // Set other details from the first item (can be customized as needed)
-                OrgOrderDTO.OrderItemDTO firstItem = orderDTO.getItems().get(0);
-                order.setBatchSize(firstItem.getBatchSize());
-                order.setUnitType(firstItem.getUnitType());
-                order.setQuantity(orderDTO.getItems().stream().mapToInt(OrgOrderDTO.OrderItemDTO::getQuantity).sum());
-
-                // For price, use the average if needed
-                BigDecimal totalPrice = orderDTO.getItems().stream()
-                        .map(OrgOrderDTO.OrderItemDTO::getMrp)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                order.setPrice(totalPrice.divide(new BigDecimal(orderDTO.getItems().size()), BigDecimal.ROUND_HALF_UP));
-
-                // Set up order items if your Order model supports this relationship
-                List<OrderItem> orderItems = new ArrayList<>();
-                for (OrgOrderDTO.OrderItemDTO itemDTO : orderDTO.getItems()) {
-                    OrderItem orderItem = new OrderItem();
-                    orderItem.setProductName(itemDTO.getProductName());
-                    orderItem.setQuantity(itemDTO.getQuantity());
-                    orderItem.setUnitPrice(itemDTO.getMrp());
-
-                    // Add description or other fields if needed
-                    String description = "Batch Size: " + itemDTO.getBatchSize() +
-                            ", Unit Type: " + itemDTO.getUnitType();
-                    orderItem.setProductDescription(description);
-
-                    // Set reference to parent order (will be set after order is created)
-                    // orderItem.setOrder(order);
-
-                    orderItems.add(orderItem);
-                }
-
-                // If your order entity supports items, uncomment this
-                // order.setItems(orderItems);
             }
 
-            // Create and save the order
+            // Create and save the order; items are inserted with it through the cascade
             Order createdOrder = orgOrderService.createOrder(order, orgId);
 
-            // If you need to save related order items after the order is created:
-            // if (orderDTO.getItems().size() > 1) {
-            //     // Save order items with reference to the created order
-            //     for (OrderItem item : order.getItems()) {
-            //         item.setOrder(createdOrder);
-            //     }
-            //     // Save order items through a repository or service
-            // }
-
             logger.info("Order created successfully with ID: {}", createdOrder.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
 
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error submitting order", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -215,6 +238,98 @@ public class OrgOrderController {
         }
     }
 
+    // Catalog prices of the products assigned to the organization, keyed by product id
+    private Map<Long, BigDecimal> catalogPrices(Integer orgId) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Product product : productService.getProductsForOrganization(orgId.longValue())) {
+            if (product.getPrice() != null) {
+                prices.put(product.getId(), product.getPrice());
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Bulk import orders from a CSV (with header row) or NDJSON upload.
+     * The body is read as a stream, so uploads are never buffered in memory.
+     */
+    @PreAuthorize("hasRole('ORGANIZATION')")
+    @PostMapping("/orders/import")
+    public ResponseEntity<?> importOrders(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            OrganizationUserDetails userDetails = (OrganizationUserDetails) authentication.getPrincipal();
+            Integer orgId = userDetails.getOrgId();
+
+            OrderImportService.Format importFormat = resolveImportFormat(format, request.getContentType());
+            if (importFormat == null) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Unsupported import format, use CSV or NDJSON"));
+            }
+
+            logger.info("Received {} order import request for organization ID: {}", importFormat, orgId);
+
+            OrderImportService.ImportReport report =
+                    orderImportService.importOrders(orgId, request.getInputStream(), importFormat);
+            return ResponseEntity.ok(report);
+
+        } catch (Exception e) {
+            logger.error("Error importing orders", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error importing orders: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Pick the import format from the query parameter, falling back to the content type
+     */
+    private OrderImportService.Format resolveImportFormat(String format, String contentType) {
+        String hint = format != null ? format : contentType;
+        if (hint == null) {
+            return null;
+        }
+
+        hint = hint.toLowerCase(Locale.ROOT);
+        if (hint.contains("csv")) {
+            return OrderImportService.Format.CSV;
+        }
+        if (hint.contains("ndjson") || hint.contains("jsonl") || hint.contains("json")) {
+            return OrderImportService.Format.NDJSON;
+        }
+        return null;
+    }
+
+    /**
+     * Stream the organization's full order history as CSV or NDJSON
+     */
+    @PreAuthorize("hasRole('ORGANIZATION')")
+    @GetMapping("/orders/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            OrganizationUserDetails userDetails = (OrganizationUserDetails) authentication.getPrincipal();
+            Integer orgId = userDetails.getOrgId();
+
+            OrderExportService.Format exportFormat = OrderExportService.parseFormat(format);
+            if (exportFormat == null) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Unsupported export format, use csv or ndjson"));
+            }
+
+            logger.info("Exporting orders for organization ID: {} as {}", orgId, exportFormat);
+            return orderExportService.exportResponse(orgId, exportFormat, acceptEncoding, "orders");
+
+        } catch (Exception e) {
+            logger.error("Error exporting orders", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error exporting orders: " + e.getMessage()));
+        }
+    }
+
     /**
      * Convert Product entity to ProductDTO
      */
@@ -366,7 +481,10 @@ public class OrgOrderController {
                     itemMap.put("productDescription", item.getProductDescription());
                     itemMap.put("unitPrice", item.getUnitPrice());
                     itemMap.put("quantity", item.getQuantity());
-                    itemMap.put("subtotal", item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())));
+                    itemMap.put("productId", item.getProductId());
+                    itemMap.put("subtotal", item.getLineTotal() != null
+                            ? item.getLineTotal()
+                            : item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())));
 
                     itemsList.add(itemMap);
                 }
@@ -394,6 +512,9 @@ public class OrgOrderController {
             logger.info("Successfully retrieved order details for orderId: {}", orderId);
             return ResponseEntity.ok(response);
 
+        } catch (TenantBulkhead.BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (SecurityException e) {
             logger.error("Security exception fetching order: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
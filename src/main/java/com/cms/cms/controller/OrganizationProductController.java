@@ -2,6 +2,7 @@ package com.cms.cms.controller;
 
 import com.cms.cms.model.Product;
 import com.cms.cms.service.ProductService;
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,6 +59,30 @@ public class OrganizationProductController {
         }
     }
 
+    /**
+     * Type-ahead search over available products by name or type.
+     * With excludeOrgId, products already assigned to that organization are left out.
+     */
+    @GetMapping("/admin/products/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long excludeOrgId,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Product type-ahead for '{}' (excludeOrgId: {})", query, excludeOrgId);
+
+        if (limit <= 0 || limit > 100) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Limit must be between 1 and 100"));
+        }
+
+        try {
+            return ResponseEntity.ok(productService.searchAvailableProducts(query, excludeOrgId, limit));
+        } catch (Exception e) {
+            logger.error("Error searching products for '{}'", query, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error searching products: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/admin/products")
     public ResponseEntity<?> createProduct(@RequestBody Product productRequest) {
         logger.info("Creating new product: {}", productRequest.getName());
@@ -172,6 +197,82 @@ public class OrganizationProductController {
         }
     }
 
+    /**
+     * Add many products to an organization in one request
+     */
+    @PostMapping("/organization/{orgId}/products/bulk")
+    public ResponseEntity<?> addProductsToOrganization(
+            @PathVariable Long orgId,
+            @RequestBody Map<String, List<Long>> request) {
+
+        List<Long> productIds = request.get("productIds");
+
+        if (productIds == null || productIds.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Product IDs are required"));
+        }
+
+        logger.info("Bulk adding {} products to organization: {}", productIds.size(), orgId);
+
+        try {
+            int added = productService.addProductsToOrganization(orgId, productIds);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Products added to organization successfully");
+            response.put("organizationId", orgId);
+            response.put("requested", productIds.size());
+            response.put("added", added);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error bulk adding products to organization: {}", orgId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error adding products: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove many products from an organization in one request
+     */
+    @PostMapping("/organization/{orgId}/products/bulk-remove")
+    public ResponseEntity<?> removeProductsFromOrganization(
+            @PathVariable Long orgId,
+            @RequestBody Map<String, List<Long>> request) {
+
+        List<Long> productIds = request.get("productIds");
+
+        if (productIds == null || productIds.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Product IDs are required"));
+        }
+
+        logger.info("Bulk removing {} products from organization: {}", productIds.size(), orgId);
+
+        try {
+            int removed = productService.removeProductsFromOrganization(orgId, productIds);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Products removed from organization successfully");
+            response.put("organizationId", orgId);
+            response.put("requested", productIds.size());
+            response.put("removed", removed);
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error bulk removing products from organization: {}", orgId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error removing products: " + e.getMessage()));
+        }
+    }
+
     /**
      * Helper method to create standardized error responses
      */
@@ -103,7 +103,15 @@ public class PasswordResetController {
 
         logger.info("Password reset request received");
 
-        boolean result = passwordResetService.resetPassword(token, newPassword);
+        boolean result;
+        try {
+            result = passwordResetService.resetPassword(token, newPassword);
+        } catch (IllegalStateException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            response.put("status", "error");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
 
         if (result) {
             Map<String, String> response = new HashMap<>();
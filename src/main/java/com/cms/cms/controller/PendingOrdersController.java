@@ -1,15 +1,20 @@
 package com.cms.cms.controller;
 
+import com.cms.cms.dto.BulkOrderActionDTO;
+import com.cms.cms.dto.PendingOrderQueueDTO;
 import com.cms.cms.model.Order;
 import com.cms.cms.service.OrgOrderService;
+import com.cms.cms.service.PendingOrderQueueService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,8 +27,11 @@ public class PendingOrdersController {
     @Autowired
     private OrgOrderService orgOrderService;
 
+    @Autowired
+    private PendingOrderQueueService pendingOrderQueueService;
+
     /**
-     * Get all pending orders
+     * Get all pending orders as full records. Use /pending/queue for the approval list.
      */
     @GetMapping("/pending")
     public ResponseEntity<?> getAllPendingOrders() {
@@ -38,6 +46,36 @@ public class PendingOrdersController {
         }
     }
 
+    /**
+     * Get one page of the pending queue, newest first, with optional filters.
+     * Pass the returned nextCursor as cursor to get the next page.
+     */
+    @GetMapping("/pending/queue")
+    public ResponseEntity<?> getPendingOrderQueue(
+            @RequestParam(required = false) Integer orgId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String product,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PendingOrderQueueService.DEFAULT_PAGE_SIZE) int size) {
+        logger.info("Fetching pending order queue page: orgId={}, fromDate={}, toDate={}, product={}, size={}",
+                orgId, fromDate, toDate, product, size);
+        try {
+            PendingOrderQueueDTO.Filter filter = new PendingOrderQueueDTO.Filter();
+            filter.setOrgId(orgId);
+            filter.setFromDate(fromDate);
+            filter.setToDate(toDate);
+            filter.setProduct(product);
+            return ResponseEntity.ok(pendingOrderQueueService.getPage(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching pending order queue", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get count of pending orders
      */
@@ -57,7 +95,7 @@ public class PendingOrdersController {
     }
 
     /**
-     * Get a specific pending order
+     * Get the full record of a specific pending order
      */
     @GetMapping("/pending/{orderId}")
     public ResponseEntity<?> getPendingOrderById(@PathVariable Long orderId) {
@@ -145,6 +183,57 @@ public class PendingOrdersController {
         }
     }
 
+    /**
+     * Approve many pending orders in one request
+     */
+    @PutMapping("/bulk/approve")
+    public ResponseEntity<?> approveOrders(@RequestBody BulkOrderActionDTO.ApprovalRequest request) {
+        int requested = request.getApprovals() == null ? 0 : request.getApprovals().size();
+        logger.info("Bulk approving {} orders", requested);
+        try {
+            List<BulkOrderActionDTO.Result> results = orgOrderService.approveOrders(request.getApprovals());
+            return ResponseEntity.ok(createBulkResponse(results, BulkOrderActionDTO.Result.APPROVED));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error bulk approving orders", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Reject many pending orders in one request
+     */
+    @PutMapping("/bulk/reject")
+    public ResponseEntity<?> rejectOrders(@RequestBody BulkOrderActionDTO.RejectionRequest request) {
+        int requested = request.getOrderIds() == null ? 0 : request.getOrderIds().size();
+        logger.info("Bulk rejecting {} orders", requested);
+        try {
+            List<BulkOrderActionDTO.Result> results =
+                    orgOrderService.rejectOrders(request.getOrderIds(), request.getRejectionReason());
+            return ResponseEntity.ok(createBulkResponse(results, BulkOrderActionDTO.Result.REJECTED));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error bulk rejecting orders", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred: " + e.getMessage()));
+        }
+    }
+
+    // Summarize per-order outcomes of a bulk action
+    private Map<String, Object> createBulkResponse(List<BulkOrderActionDTO.Result> results, String successOutcome) {
+        long succeeded = results.stream().filter(result -> successOutcome.equals(result.getOutcome())).count();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("requested", results.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", results.size() - succeeded);
+        response.put("results", results);
+        return response;
+    }
+
     // Helper method to create standardized error responses
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> response = new HashMap<>();
@@ -0,0 +1,62 @@
+package com.cms.cms.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Request and result payloads for bulk approve/reject of pending orders
+ */
+public class BulkOrderActionDTO {
+
+    // Request body for bulk approval
+    @Data
+    public static class ApprovalRequest {
+        private List<ApprovalItem> approvals;
+    }
+
+    // Approval details for a single order in a bulk request
+    @Data
+    public static class ApprovalItem {
+        private Long orderId;
+        private String prnNo;
+        private Integer batchSizeStrips;
+        private Integer batchSizeTabs;
+        private String sizeCode;
+        private String pvcColor;
+        private String packingSize;
+        private BigDecimal rate;
+        private String remarks;
+
+        @JsonFormat(pattern = "yyyy-MM-dd['T'HH:mm:ss]")
+        private LocalDateTime expectedDelivery;
+    }
+
+    // Request body for bulk rejection
+    @Data
+    public static class RejectionRequest {
+        private List<Long> orderIds;
+        private String rejectionReason;
+    }
+
+    // Outcome for a single order in a bulk request
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        public static final String APPROVED = "APPROVED";
+        public static final String REJECTED = "REJECTED";
+        public static final String NOT_FOUND = "NOT_FOUND";
+        public static final String NOT_PENDING = "NOT_PENDING";
+        public static final String INVALID = "INVALID";
+
+        private Long orderId;
+        private String outcome;
+        private String message;
+    }
+}
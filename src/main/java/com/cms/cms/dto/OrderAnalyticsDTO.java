@@ -0,0 +1,62 @@
+package com.cms.cms.dto;
+
+import com.cms.cms.model.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Query and result payloads for the in-memory order analytics
+ */
+public class OrderAnalyticsDTO {
+
+    // Time bucket size; ALL puts the whole range into one bucket
+    public enum Bucket {
+        DAY, WEEK, MONTH, YEAR, ALL
+    }
+
+    // Optional second grouping inside each time bucket
+    public enum GroupBy {
+        NONE, ORGANIZATION, STATUS
+    }
+
+    // Dates are inclusive; a null filter matches everything
+    @Data
+    public static class Query {
+        private Bucket bucket = Bucket.ALL;
+        private GroupBy groupBy = GroupBy.NONE;
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private Integer orgId;
+        private Set<OrderStatus> statuses;
+    }
+
+    // One cell of the result; bucketStart is null for an unbounded ALL query
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        private LocalDate bucketStart;
+        private Integer orgId;
+        private OrderStatus status;
+        private long orderCount;
+        private BigDecimal totalAmount;
+    }
+
+    // Query result with the number of orders scanned and how long it took
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private List<Row> rows;
+        private int ordersScanned;
+        private long elapsedMicros;
+    }
+}
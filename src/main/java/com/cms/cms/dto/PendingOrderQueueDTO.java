@@ -0,0 +1,52 @@
+package com.cms.cms.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payloads for the paginated pending-orders queue
+ */
+public class PendingOrderQueueDTO {
+
+    // Slim row shown in the approval list; the full order comes from the details endpoint
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String orderId;
+        private Integer orgId;
+        private String organizationName;
+        private String productName;
+        private BigDecimal totalAmount;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime placedAt;
+    }
+
+    // Optional filters; dates are inclusive
+    @Data
+    public static class Filter {
+        private Integer orgId;
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private String product;
+    }
+
+    // One page of the queue; pass nextCursor back to get the following page
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Page {
+        private List<Item> items;
+        private String nextCursor;
+        private boolean hasMore;
+    }
+}
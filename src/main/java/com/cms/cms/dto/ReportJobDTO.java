@@ -0,0 +1,24 @@
+package com.cms.cms.dto;
+
+import com.cms.cms.model.ReportJob;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Request payload for submitting a background report
+ */
+public class ReportJobDTO {
+
+    // Report spec; dates are inclusive and every filter is optional
+    @Data
+    public static class Request {
+        private ReportJob.Type type;
+        private ReportJob.Format format = ReportJob.Format.CSV;
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private Integer orgId;
+        // Row limit for ranked reports (TOP_PRODUCTS)
+        private Integer limit;
+    }
+}
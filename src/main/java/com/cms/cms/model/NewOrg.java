@@ -23,7 +23,8 @@ import java.util.Set;
 public class NewOrg {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organizations_seq")
+    @SequenceGenerator(name = "organizations_seq", sequenceName = "organizations_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Organization name is required")
@@ -101,7 +102,8 @@ public class NewOrg {
     @JoinTable(
             name = "organization_products",
             joinColumns = @JoinColumn(name = "organization_id"),
-            inverseJoinColumns = @JoinColumn(name = "product_id")
+            inverseJoinColumns = @JoinColumn(name = "product_id"),
+            indexes = @Index(name = "idx_org_products_org_product", columnList = "organization_id, product_id", unique = true)
     )
     @JsonIgnoreProperties("organizations")
     private Set<Product> products = new HashSet<>();
@@ -1,26 +1,40 @@
 package com.cms.cms.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "orders")
+@EntityListeners({OrderIdListener.class, OrderStatsListener.class})
 @Data
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "organization_id", nullable = true)
     private Integer orgId;
 
-    @Column(name = "status")
-    private String status = "Pending";
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(name = "status", length = 16, nullable = false)
+    private OrderStatus status = OrderStatus.PENDING;
+
+    // Real timestamp for ordering the pending queue; order_date is a display string
+    @CreationTimestamp
+    @Column(name = "placed_at", updatable = false)
+    @JsonIgnore
+    private LocalDateTime placedAt;
 
     @Column(name = "total_amount")
     private BigDecimal totalAmount;
@@ -36,20 +50,12 @@ public class Order {
     private String trackingNumber;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
-    private List<OrderItem> items;
+    @BatchSize(size = 100)
+    private List<OrderItem> items = new ArrayList<>();
 
     @Column(name = "order_id", nullable = false, unique = true)
     private String orderId;
 
-    @PrePersist
-    protected void onCreate() {
-        if (orderId == null) {
-            // Generate a unique ID - temporary implementation
-            // In production, you'd use a more robust method
-            orderId = "ORD-" + System.currentTimeMillis();
-        }
-    }
-
     // New fields from the form
     @Column(name = "prn_no")
     private String prnNo;
@@ -118,4 +124,42 @@ public class Order {
 
     @Column(name = "rejection_reason")
     private String rejectionReason;
-}
\ No newline at end of file
+
+    // State as last loaded or flushed, used by OrderStatsListener to detect changes
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Integer loadedOrgId;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private OrderStatus loadedStatus;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BigDecimal loadedTotalAmount;
+
+    /**
+     * Move the order to a new status, enforcing the allowed transitions
+     */
+    public void transitionTo(OrderStatus next) {
+        OrderStatus current = status != null ? status : OrderStatus.PENDING;
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException("Cannot change order status from " + current.getLabel() + " to " + next.getLabel());
+        }
+        status = next;
+    }
+
+    /**
+     * Add a line item and link it back to this order
+     */
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+}
@@ -0,0 +1,24 @@
+package com.cms.cms.model;
+
+import com.cms.cms.service.OrderIdGenerator;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assigns an order number to new orders that do not have one yet.
+ * Hibernate resolves this listener through Spring, so the configured generator is injected.
+ */
+@Component
+public class OrderIdListener {
+
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @PrePersist
+    public void assignOrderId(Order order) {
+        if (order.getOrderId() == null || order.getOrderId().isEmpty()) {
+            order.setOrderId(orderIdGenerator.nextOrderId());
+        }
+    }
+}
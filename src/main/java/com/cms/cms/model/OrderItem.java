@@ -1,8 +1,11 @@
 package com.cms.cms.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 
@@ -10,14 +13,22 @@ import java.math.BigDecimal;
 @Data
 @Table(name = "order_items")
 public class OrderItem {
+    // Sequence with a block allocation so Hibernate can batch item inserts (IDENTITY disables batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    @Column(name = "product_id")
+    private Long productId;
+
     @Column(name = "product_name", nullable = false)
     private String productName;
 
@@ -30,4 +41,8 @@ public class OrderItem {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
-}
\ No newline at end of file
+    // unitPrice * quantity, computed once when the order is submitted
+    @Column(name = "line_total", precision = 12, scale = 2)
+    private BigDecimal lineTotal;
+
+}
@@ -0,0 +1,66 @@
+package com.cms.cms.model;
+
+import com.cms.cms.service.OrderChangeEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Publishes an OrderChangeEvent whenever an order is created, removed, or changes organization,
+ * status or total amount, so per-organization counters and the analytics snapshot can be kept up to date.
+ * The state as loaded is remembered on the entity to compute what changed on update.
+ */
+@Component
+public class OrderStatsListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void rememberLoadedState(Order order) {
+        order.setLoadedOrgId(order.getOrgId());
+        order.setLoadedStatus(order.getStatus());
+        order.setLoadedTotalAmount(order.getTotalAmount());
+    }
+
+    @PostPersist
+    public void orderCreated(Order order) {
+        if (order.getOrgId() != null) {
+            eventPublisher.publishEvent(OrderChangeEvent.created(
+                    order.getId(), order.getDate(), order.getOrgId(), order.getStatus(), order.getTotalAmount()));
+        }
+        rememberLoadedState(order);
+    }
+
+    @PostUpdate
+    public void orderUpdated(Order order) {
+        boolean changed = !Objects.equals(order.getLoadedOrgId(), order.getOrgId())
+                || !Objects.equals(order.getLoadedStatus(), order.getStatus())
+                || !sameAmount(order.getLoadedTotalAmount(), order.getTotalAmount());
+        if (changed) {
+            eventPublisher.publishEvent(new OrderChangeEvent(order.getId(), order.getDate(),
+                    order.getLoadedOrgId(), order.getLoadedStatus(), order.getLoadedTotalAmount(),
+                    order.getOrgId(), order.getStatus(), order.getTotalAmount()));
+        }
+        rememberLoadedState(order);
+    }
+
+    @PostRemove
+    public void orderRemoved(Order order) {
+        if (order.getLoadedOrgId() != null) {
+            eventPublisher.publishEvent(OrderChangeEvent.removed(order.getId(),
+                    order.getLoadedOrgId(), order.getLoadedStatus(), order.getLoadedTotalAmount()));
+        }
+    }
+
+    private boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
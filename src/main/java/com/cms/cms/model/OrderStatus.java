@@ -0,0 +1,87 @@
+package com.cms.cms.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Order lifecycle. Stored by name; exposed in the API with its display label ("Pending"),
+ * which is also what clients may send. Allowed transitions:
+ * <pre>
+ * PENDING    -> PROCESSING, REJECTED, CANCELLED
+ * PROCESSING -> SHIPPED, COMPLETED, CANCELLED
+ * SHIPPED    -> DELIVERED
+ * DELIVERED  -> COMPLETED
+ * </pre>
+ * COMPLETED, REJECTED and CANCELLED are final.
+ */
+public enum OrderStatus {
+    PENDING("Pending"),
+    PROCESSING("Processing"),
+    SHIPPED("Shipped"),
+    DELIVERED("Delivered"),
+    COMPLETED("Completed"),
+    REJECTED("Rejected"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    OrderStatus(String label) {
+        this.label = label;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Statuses this one may move to
+     */
+    public Set<OrderStatus> nextStatuses() {
+        switch (this) {
+            case PENDING:
+                return EnumSet.of(PROCESSING, REJECTED, CANCELLED);
+            case PROCESSING:
+                return EnumSet.of(SHIPPED, COMPLETED, CANCELLED);
+            case SHIPPED:
+                return EnumSet.of(DELIVERED);
+            case DELIVERED:
+                return EnumSet.of(COMPLETED);
+            default:
+                return EnumSet.noneOf(OrderStatus.class);
+        }
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return next == this || nextStatuses().contains(next);
+    }
+
+    public boolean isOpen() {
+        return this == PENDING || this == PROCESSING;
+    }
+
+    public boolean isFulfilled() {
+        return this == COMPLETED || this == DELIVERED;
+    }
+
+    /**
+     * Parse a status by name or label, ignoring case
+     */
+    @JsonCreator
+    public static OrderStatus fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        for (OrderStatus status : values()) {
+            if (status.name().equals(normalized)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status: " + value);
+    }
+}
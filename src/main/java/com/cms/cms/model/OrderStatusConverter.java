@@ -0,0 +1,55 @@
+package com.cms.cms.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stores OrderStatus by name and reads it back by name or label, so rows written before the
+ * status column was normalized ("Pending", "Completed") still load. Synonyms get the same mapping
+ * as the normalize-order-status migration; any other value is logged and read as PENDING rather
+ * than failing the whole query.
+ */
+@Converter
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, String> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusConverter.class);
+
+    private static final Map<String, OrderStatus> SYNONYMS = Map.of(
+            "NEW", OrderStatus.PENDING,
+            "APPROVED", OrderStatus.PROCESSING,
+            "ACCEPTED", OrderStatus.PROCESSING,
+            "IN PROGRESS", OrderStatus.PROCESSING,
+            "IN_PROGRESS", OrderStatus.PROCESSING,
+            "DISPATCHED", OrderStatus.SHIPPED,
+            "COMPLETE", OrderStatus.COMPLETED,
+            "DONE", OrderStatus.COMPLETED,
+            "DECLINED", OrderStatus.REJECTED,
+            "CANCELED", OrderStatus.CANCELLED);
+
+    @Override
+    public String convertToDatabaseColumn(OrderStatus status) {
+        return status != null ? status.name() : null;
+    }
+
+    @Override
+    public OrderStatus convertToEntityAttribute(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return OrderStatus.fromString(value);
+        } catch (IllegalArgumentException e) {
+            OrderStatus synonym = SYNONYMS.get(value.trim().toUpperCase(Locale.ROOT));
+            if (synonym != null) {
+                return synonym;
+            }
+            logger.warn("Unknown order status '{}' in database, reading it as {}", value, OrderStatus.PENDING);
+            return OrderStatus.PENDING;
+        }
+    }
+}
@@ -20,7 +20,8 @@ import java.util.HashSet;
 @ToString(exclude = "organizations") // Exclude organizations from toString
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -0,0 +1,92 @@
+package com.cms.cms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A heavy admin report computed in the background. The result file is kept in local report
+ * storage, and identical requests (same spec key) reuse a queued, running or completed job.
+ */
+@Entity
+@Table(name = "report_jobs")
+@Data
+public class ReportJob {
+
+    public enum Type {
+        // Order count and sales per organization per calendar month
+        SALES_BY_ORG_MONTH,
+        // Products ranked by revenue
+        TOP_PRODUCTS,
+        // Order count and value at each order status
+        STATUS_FUNNEL
+    }
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_jobs_seq")
+    @SequenceGenerator(name = "report_jobs_seq", sequenceName = "report_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", length = 32, nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", length = 8, nullable = false)
+    private Format format;
+
+    @Column(name = "from_date")
+    private LocalDate fromDate;
+
+    @Column(name = "to_date")
+    private LocalDate toDate;
+
+    @Column(name = "org_id")
+    private Integer orgId;
+
+    @Column(name = "result_limit")
+    private Integer resultLimit;
+
+    // Type, format and parameters in canonical form
+    @Column(name = "spec_key", nullable = false)
+    private String specKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "row_count")
+    private Long rowCount;
+
+    @JsonIgnore
+    @Column(name = "file_path", length = 1024)
+    private String filePath;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+}
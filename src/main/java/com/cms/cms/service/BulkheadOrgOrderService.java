@@ -0,0 +1,93 @@
+package com.cms.cms.service;
+
+import com.cms.cms.config.TenantBulkhead;
+import com.cms.cms.dto.BulkOrderActionDTO;
+import com.cms.cms.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OrgOrderService as seen by the controllers: organization-scoped calls run inside that
+ * organization's bulkhead, admin-wide calls go straight through.
+ */
+@Service
+@Primary
+public class BulkheadOrgOrderService implements OrgOrderService {
+
+    @Autowired
+    private OrgOrderServiceImpl delegate;
+
+    @Autowired
+    private TenantBulkhead tenantBulkhead;
+
+    @Override
+    public List<Order> getOrdersByOrgId(Integer orgId) {
+        return tenantBulkhead.call(orgId, () -> delegate.getOrdersByOrgId(orgId));
+    }
+
+    @Override
+    public Page<Order> getOrdersByOrgIdWithFilters(Integer orgId, Map<String, Object> filters, Pageable pageable) {
+        return tenantBulkhead.call(orgId, () -> delegate.getOrdersByOrgIdWithFilters(orgId, filters, pageable));
+    }
+
+    @Override
+    public Order getOrderById(Long orderId, Integer orgId) {
+        return tenantBulkhead.call(orgId, () -> delegate.getOrderById(orderId, orgId));
+    }
+
+    @Override
+    public Order createOrder(Order order, Integer orgId) {
+        return tenantBulkhead.call(orgId, () -> delegate.createOrder(order, orgId));
+    }
+
+    @Override
+    public Order updateOrder(Order order, Integer orgId) {
+        return tenantBulkhead.call(orgId, () -> delegate.updateOrder(order, orgId));
+    }
+
+    @Override
+    public boolean cancelOrder(Long orderId, Integer orgId) {
+        return tenantBulkhead.call(orgId, () -> delegate.cancelOrder(orderId, orgId));
+    }
+
+    @Override
+    public List<Order> getAllPendingOrders() {
+        return delegate.getAllPendingOrders();
+    }
+
+    @Override
+    public long countPendingOrders() {
+        return delegate.countPendingOrders();
+    }
+
+    @Override
+    public Order getPendingOrderById(Long orderId) {
+        return delegate.getPendingOrderById(orderId);
+    }
+
+    @Override
+    public Order approveOrder(Long orderId, Order orderDetails) {
+        return delegate.approveOrder(orderId, orderDetails);
+    }
+
+    @Override
+    public Order rejectOrder(Long orderId, String rejectionReason) {
+        return delegate.rejectOrder(orderId, rejectionReason);
+    }
+
+    @Override
+    public List<BulkOrderActionDTO.Result> approveOrders(List<BulkOrderActionDTO.ApprovalItem> approvals) {
+        return delegate.approveOrders(approvals);
+    }
+
+    @Override
+    public List<BulkOrderActionDTO.Result> rejectOrders(List<Long> orderIds, String rejectionReason) {
+        return delegate.rejectOrders(orderIds, rejectionReason);
+    }
+}
@@ -0,0 +1,150 @@
+package com.cms.cms.service;
+
+import com.cms.cms.config.RedisCircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Refresh-ahead for the admin dashboard caches.
+ * One node at a time (whoever holds the Redis lease) rebuilds every dashboard artifact in the
+ * background, well before the cached copies expire, so dashboard reads are always hits.
+ * A manual refresh only records a request; the next check on any node picks it up.
+ */
+@Service
+public class DashboardRefreshService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardRefreshService.class);
+
+    private static final String LOCK_KEY = "lock:dashboard:refresh";
+    private static final String REQUESTED_KEY = "dashboard:refresh:requested";
+    private static final String LAST_REFRESH_KEY = "dashboard:refresh:last";
+    private static final String[] SALES_PERIODS = {"daily", "weekly", "monthly", "yearly"};
+
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardCacheService dashboardCacheService;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    // Must stay below the shortest dashboard TTL (recent orders, 5 minutes)
+    @Value("${app.dashboard.refresh-interval-ms:240000}")
+    private long refreshIntervalMs;
+
+    @Value("${app.dashboard.refresh-lease-ms:300000}")
+    private long leaseMs;
+
+    // A refresh requested while Redis was unavailable, recorded there once it is back
+    private final AtomicBoolean pendingRequest = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        circuitBreaker.onRecovery(this::flushPendingRequest);
+    }
+
+    /**
+     * Ask for a rebuild of all dashboard caches as soon as possible
+     */
+    public void requestRefresh() {
+        boolean recorded = circuitBreaker.call(() -> {
+            recordRequest();
+            return true;
+        }, () -> false);
+        if (recorded) {
+            logger.info("Dashboard cache rebuild requested");
+        } else {
+            pendingRequest.set(true);
+            logger.warn("Redis unavailable, dashboard cache rebuild request queued");
+        }
+    }
+
+    private void flushPendingRequest() {
+        if (pendingRequest.compareAndSet(true, false)) {
+            try {
+                recordRequest();
+            } catch (Exception e) {
+                pendingRequest.set(true);
+                logger.warn("Could not record queued dashboard rebuild request: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void recordRequest() {
+        redisTemplate.opsForValue().set(REQUESTED_KEY, System.currentTimeMillis(), leaseMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Rebuild the dashboard caches when they are due or a rebuild was requested
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-check-ms:10000}")
+    public void refreshIfDue() {
+        if (circuitBreaker.isOpen()) {
+            // Readers fall back to computing on demand until Redis is back
+            return;
+        }
+
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, leaseMs, TimeUnit.MILLISECONDS);
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not acquire dashboard refresh lease: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            boolean requested = Boolean.TRUE.equals(redisTemplate.delete(REQUESTED_KEY));
+            Object lastRefresh = redisTemplate.opsForValue().get(LAST_REFRESH_KEY);
+            boolean due = !(lastRefresh instanceof Number)
+                    || System.currentTimeMillis() - ((Number) lastRefresh).longValue() >= refreshIntervalMs;
+
+            if (requested || due) {
+                rebuildAll();
+                redisTemplate.opsForValue().set(LAST_REFRESH_KEY, System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            logger.error("Dashboard cache refresh failed", e);
+        } finally {
+            try {
+                redisTemplate.execute(RELEASE_LOCK, List.of(LOCK_KEY), token);
+            } catch (Exception e) {
+                logger.warn("Could not release dashboard refresh lease: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void rebuildAll() {
+        long startedAt = System.currentTimeMillis();
+
+        dashboardCacheService.refreshDashboardSummary(dashboardService::computeSummary);
+        dashboardCacheService.refreshRecentOrders(dashboardService::computeRecentOrders);
+        for (String period : SALES_PERIODS) {
+            dashboardCacheService.refreshSalesData(period, () -> dashboardService.computeSalesData(period));
+        }
+
+        logger.info("Dashboard caches rebuilt in {} ms", System.currentTimeMillis() - startedAt);
+    }
+}
@@ -0,0 +1,531 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.NewOrgRepository;
+import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.dto.OrderAnalyticsDTO;
+import com.cms.cms.model.NewOrg;
+import com.cms.cms.model.Order;
+import com.cms.cms.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Admin dashboard figures. Each one is served from cache and recomputed at most once per key
+ * at a time when it expires. Totals and sales charts come from the in-memory order analytics
+ * snapshot once it is built; until then, and for the rest, from the database in read-only
+ * transactions, so they run on the read replica when one is configured.
+ */
+@Service
+public class DashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private NewOrgRepository organizationRepository;
+
+    @Autowired
+    private DashboardCacheService dashboardCacheService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderAnalyticsEngine orderAnalyticsEngine;
+
+    public Map<String, Object> getSummary() {
+        return dashboardCacheService.getDashboardSummary(() -> readOnly(this::computeSummary));
+    }
+
+    public List<Map<String, Object>> getRecentOrders() {
+        return dashboardCacheService.getRecentOrders(() -> readOnly(this::computeRecentOrders));
+    }
+
+    public List<Map<String, Object>> getSalesData(String period) {
+        return dashboardCacheService.getSalesData(period, () -> readOnly(() -> computeSalesData(period)));
+    }
+
+    // Calls from within this class bypass the @Transactional proxy
+    private <T> T readOnly(Supplier<T> computation) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction.execute(status -> computation.get());
+    }
+
+    /**
+     * Compute dashboard summary from the database
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> computeSummary() {
+        logger.info("Computing dashboard summary from database");
+
+        // Get all organizations count
+        long totalUsers = organizationRepository.count();
+
+        long totalOrders;
+        BigDecimal totalSales;
+        long pendingOrders;
+        if (orderAnalyticsEngine.isReady()) {
+            OrderAnalyticsDTO.Row totals = orderAnalyticsEngine.query(new OrderAnalyticsDTO.Query()).getRows().get(0);
+            totalOrders = totals.getOrderCount();
+            totalSales = totals.getTotalAmount();
+
+            OrderAnalyticsDTO.Query openOrders = new OrderAnalyticsDTO.Query();
+            openOrders.setStatuses(Arrays.stream(OrderStatus.values()).filter(OrderStatus::isOpen)
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(OrderStatus.class))));
+            pendingOrders = orderAnalyticsEngine.query(openOrders).getRows().get(0).getOrderCount();
+        } else {
+            // Get all orders
+            List<Order> allOrders = orderRepository.findAll();
+
+            // Get total orders count
+            totalOrders = allOrders.size();
+
+            // Calculate total sales
+            totalSales = allOrders.stream()
+                    .filter(order -> order.getTotalAmount() != null)
+                    .map(Order::getTotalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            // Count pending orders
+            pendingOrders = allOrders.stream()
+                    .filter(order -> order.getStatus() != null && order.getStatus().isOpen())
+                    .count();
+        }
+
+        // Calculate trends (simplified - in a real app you'd compare with previous periods)
+        String userTrend = calculateTrend(totalUsers, 5.2);    // Example: 5.2% increase
+        String orderTrend = calculateTrend(totalOrders, 3.8);  // Example: 3.8% increase
+        String salesTrend = calculateTrend(totalSales.doubleValue(), -2.1); // Example: 2.1% decrease
+        String pendingTrend = calculateTrend(pendingOrders, 1.5); // Example: 1.5% increase
+
+        // Create response map
+        Map<String, Object> summaryData = new HashMap<>();
+        summaryData.put("totalUsers", totalUsers);
+        summaryData.put("totalOrders", totalOrders);
+        summaryData.put("totalSales", totalSales);
+        summaryData.put("pendingOrders", pendingOrders);
+        summaryData.put("userTrend", userTrend);
+        summaryData.put("orderTrend", orderTrend);
+        summaryData.put("salesTrend", salesTrend);
+        summaryData.put("pendingTrend", pendingTrend);
+        return summaryData;
+    }
+
+    /**
+     * Compute the five most recent orders from the database
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> computeRecentOrders() {
+        logger.info("Computing recent orders from database");
+
+        // Get all orders
+        List<Order> allOrders = orderRepository.findAll();
+
+        // Sort by date (most recent first) and take top 5
+        List<Map<String, Object>> recentOrders = allOrders.stream()
+                .filter(order -> order.getOrgId() != null)
+                .sorted((o1, o2) -> {
+                    // Sort by date if available
+                    if (o1.getDate() != null && o2.getDate() != null) {
+                        return o2.getDate().compareTo(o1.getDate());
+                    }
+                    // Fallback to ID
+                    return o2.getId().compareTo(o1.getId());
+                })
+                .limit(5)
+                .map(order -> {
+                    // Get organization name
+                    Optional<NewOrg> org = organizationRepository.findById(Long.valueOf(order.getOrgId()));
+                    String orgName = org.map(NewOrg::getOrganizationName).orElse("Unknown");
+
+                    // Create order data with organization name
+                    Map<String, Object> orderData = new HashMap<>();
+                    orderData.put("id", order.getId());
+                    orderData.put("orderId", order.getOrderId());
+                    orderData.put("organizationName", orgName);
+                    orderData.put("productName", order.getProductName());
+                    orderData.put("date", order.getDate());
+                    orderData.put("totalAmount", order.getTotalAmount());
+                    orderData.put("status", order.getStatus());
+
+                    return orderData;
+                })
+                .collect(Collectors.toList());
+        return recentOrders;
+    }
+
+    /**
+     * Compute sales chart data for a period from the database
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> computeSalesData(String period) {
+        if (orderAnalyticsEngine.isReady()) {
+            return computeSalesDataFromSnapshot(period);
+        }
+        logger.info("Computing sales data for period: {} from database", period);
+
+        // Get all orders
+        List<Order> allOrders = orderRepository.findAll();
+        logger.info("Total orders found: {}", allOrders.size());
+
+        // Log a sample order if available
+        if (!allOrders.isEmpty()) {
+            Order sampleOrder = allOrders.get(0);
+            logger.info("Sample order - ID: {}, Date: {}, Amount: {}",
+                    sampleOrder.getId(), sampleOrder.getDate(), sampleOrder.getTotalAmount());
+        }
+
+        // Filter out orders with null totalAmount
+        List<Order> validOrders = allOrders.stream()
+                .filter(order -> order.getTotalAmount() != null)
+                .collect(Collectors.toList());
+
+        logger.info("Orders with valid amounts: {}", validOrders.size());
+
+        if (validOrders.isEmpty()) {
+            logger.info("No valid orders found for sales data");
+            return new ArrayList<>();
+        }
+
+        // Process based on period
+        List<Map<String, Object>> chartData;
+        switch (period.toLowerCase()) {
+            case "daily":
+                chartData = getDailySalesData(validOrders);
+                break;
+            case "weekly":
+                chartData = getWeeklySalesData(validOrders);
+                break;
+            case "yearly":
+                chartData = getYearlySalesData(validOrders);
+                break;
+            case "monthly":
+            default:
+                chartData = getMonthlySalesData(validOrders);
+                break;
+        }
+        return chartData;
+    }
+
+    /**
+     * Sales chart data for a period from the order analytics snapshot, one point per bucket
+     */
+    private List<Map<String, Object>> computeSalesDataFromSnapshot(String period) {
+        LocalDate today = LocalDate.now();
+        OrderAnalyticsDTO.Query query = new OrderAnalyticsDTO.Query();
+        DateTimeFormatter nameFormatter;
+        switch (period.toLowerCase()) {
+            case "daily":
+                query.setBucket(OrderAnalyticsDTO.Bucket.DAY);
+                query.setFromDate(today.minusDays(6));
+                nameFormatter = DateTimeFormatter.ofPattern("EEE, MMM d"); // e.g., "Mon, Jan 1"
+                break;
+            case "weekly":
+                query.setBucket(OrderAnalyticsDTO.Bucket.WEEK);
+                query.setFromDate(today.minusWeeks(4).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+                nameFormatter = null;
+                break;
+            case "yearly":
+                query.setBucket(OrderAnalyticsDTO.Bucket.YEAR);
+                query.setFromDate(today.minusYears(2).withDayOfYear(1));
+                nameFormatter = DateTimeFormatter.ofPattern("yyyy");
+                break;
+            case "monthly":
+            default:
+                query.setBucket(OrderAnalyticsDTO.Bucket.MONTH);
+                query.setFromDate(today.withDayOfYear(1));
+                query.setToDate(today.withMonth(12).withDayOfMonth(31));
+                nameFormatter = DateTimeFormatter.ofPattern("MMM", Locale.ENGLISH);
+                break;
+        }
+        if (query.getToDate() == null) {
+            query.setToDate(today);
+        }
+
+        OrderAnalyticsDTO.Result result = orderAnalyticsEngine.query(query);
+        logger.info("Computed {} sales data points for period: {} from {} orders in {} us",
+                result.getRows().size(), period, result.getOrdersScanned(), result.getElapsedMicros());
+
+        List<Map<String, Object>> chartData = new ArrayList<>();
+        for (OrderAnalyticsDTO.Row row : result.getRows()) {
+            LocalDate start = row.getBucketStart();
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("name", nameFormatter != null
+                    ? start.format(nameFormatter)
+                    : start.getYear() + " W" + String.format("%02d", start.get(WeekFields.ISO.weekOfYear()))); // "2023 W01"
+            dataPoint.put("value", row.getTotalAmount().intValue());
+            chartData.add(dataPoint);
+        }
+        return chartData;
+    }
+
+    private LocalDate parseOrderDate(String dateStr) {
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            // Try to parse as ISO format (2025-03-20 22:38:18.752437)
+            if (dateStr.contains("-")) {
+                // Extract just the date part if there's a time component
+                String datePart = dateStr.split(" ")[0];
+                return LocalDate.parse(datePart);
+            }
+            // Try to parse as "dd MMM yyyy" format
+            else {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
+                return LocalDate.parse(dateStr, formatter);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not parse date: {} - {}", dateStr, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Map<String, Object>> getDailySalesData(List<Order> orders) {
+        // Implementation remains the same
+        logger.info("Processing daily sales data");
+
+        // Calculate the date range (last 7 days)
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(6); // 7 days including today
+
+        // Map to store daily sales
+        Map<LocalDate, BigDecimal> dailySales = new TreeMap<>();
+
+        // Initialize all dates in range with zero
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dailySales.put(date, BigDecimal.ZERO);
+        }
+
+        // Count orders with valid dates
+        int validOrderCount = 0;
+
+        // Aggregate sales by day
+        for (Order order : orders) {
+            LocalDate orderDate = parseOrderDate(order.getDate());
+
+            if (orderDate != null) {
+                validOrderCount++;
+
+                // Only include orders in our date range
+                if (!orderDate.isBefore(startDate) && !orderDate.isAfter(endDate)) {
+                    dailySales.put(
+                            orderDate,
+                            dailySales.getOrDefault(orderDate, BigDecimal.ZERO).add(order.getTotalAmount())
+                    );
+                }
+            }
+        }
+
+        logger.info("Found {} orders with valid dates out of {} total for daily view", validOrderCount, orders.size());
+
+        // Convert to chart format
+        List<Map<String, Object>> chartData = new ArrayList<>();
+        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("EEE, MMM d"); // e.g., "Mon, Jan 1"
+
+        for (Map.Entry<LocalDate, BigDecimal> entry : dailySales.entrySet()) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("name", entry.getKey().format(outputFormatter));
+            dataPoint.put("value", entry.getValue().intValue()); // Use actual value
+            chartData.add(dataPoint);
+        }
+
+        return chartData;
+    }
+
+    // Other existing methods for weekly, monthly, yearly data and trend calculation...
+    private List<Map<String, Object>> getWeeklySalesData(List<Order> orders) {
+        // Implementation remains the same
+        // ... existing implementation
+        logger.info("Processing weekly sales data");
+
+        // Calculate the date range (last 4 weeks)
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusWeeks(4);
+
+        // Map to store weekly sales (key: year-week)
+        Map<String, BigDecimal> weeklySales = new TreeMap<>();
+
+        // Initialize all weeks in range with zero
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusWeeks(1)) {
+            int year = date.getYear();
+            int weekOfYear = date.get(WeekFields.ISO.weekOfYear());
+            String weekKey = String.format("%d-W%02d", year, weekOfYear);
+            weeklySales.put(weekKey, BigDecimal.ZERO);
+        }
+
+        // Count orders with valid dates
+        int validOrderCount = 0;
+
+        // Aggregate sales by week
+        for (Order order : orders) {
+            LocalDate orderDate = parseOrderDate(order.getDate());
+
+            if (orderDate != null) {
+                validOrderCount++;
+
+                // Only include orders in reasonable time frame (last 6 months)
+                if (orderDate.isAfter(endDate.minusMonths(6))) {
+                    int year = orderDate.getYear();
+                    int weekOfYear = orderDate.get(WeekFields.ISO.weekOfYear());
+                    String weekKey = String.format("%d-W%02d", year, weekOfYear);
+
+                    // Only add to existing weeks in our map (last 4 weeks)
+                    if (weeklySales.containsKey(weekKey)) {
+                        weeklySales.put(
+                                weekKey,
+                                weeklySales.get(weekKey).add(order.getTotalAmount())
+                        );
+                    }
+                }
+            }
+        }
+
+        logger.info("Found {} orders with valid dates out of {} total for weekly view", validOrderCount, orders.size());
+
+        // Convert to chart format
+        List<Map<String, Object>> chartData = new ArrayList<>();
+
+        for (Map.Entry<String, BigDecimal> entry : weeklySales.entrySet()) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("name", entry.getKey().replace("-", " ")); // Format: "2023 W01"
+            dataPoint.put("value", entry.getValue().intValue()); // Use actual value
+            chartData.add(dataPoint);
+        }
+
+        return chartData;
+    }
+
+    private List<Map<String, Object>> getMonthlySalesData(List<Order> orders) {
+        // Implementation remains the same
+        // ... existing implementation
+        logger.info("Processing monthly sales data");
+
+        // Map to store monthly sales
+        Map<String, BigDecimal> monthlySales = new TreeMap<>();
+
+        // Initialize all months with zero (for current year)
+        int currentYear = LocalDate.now().getYear();
+        String[] monthAbbreviations = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+        for (String month : monthAbbreviations) {
+            monthlySales.put(month, BigDecimal.ZERO);
+        }
+
+        // Count orders with valid dates
+        int validOrderCount = 0;
+
+        // Aggregate sales by month
+        for (Order order : orders) {
+            LocalDate orderDate = parseOrderDate(order.getDate());
+
+            if (orderDate != null) {
+                validOrderCount++;
+
+                // Only include orders from current year
+                if (orderDate.getYear() == currentYear) {
+                    // Get month abbreviation (Jan, Feb, etc.)
+                    String month = orderDate.getMonth().toString().substring(0, 3);
+
+                    monthlySales.put(
+                            month,
+                            monthlySales.getOrDefault(month, BigDecimal.ZERO).add(order.getTotalAmount())
+                    );
+                }
+            }
+        }
+
+        logger.info("Found {} orders with valid dates out of {} total for monthly view", validOrderCount, orders.size());
+
+        // Convert to chart format
+        List<Map<String, Object>> chartData = new ArrayList<>();
+
+        for (Map.Entry<String, BigDecimal> entry : monthlySales.entrySet()) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("name", entry.getKey());
+            dataPoint.put("value", entry.getValue().intValue()); // Use actual value
+            chartData.add(dataPoint);
+        }
+
+        return chartData;
+    }
+
+    private List<Map<String, Object>> getYearlySalesData(List<Order> orders) {
+        // Implementation remains the same
+        // ... existing implementation
+        logger.info("Processing yearly sales data");
+
+        // Calculate the years to include (current year and 2 previous)
+        int currentYear = LocalDate.now().getYear();
+        int startYear = currentYear - 2;
+
+        // Map to store yearly sales
+        Map<Integer, BigDecimal> yearlySales = new TreeMap<>();
+
+        // Initialize years with zero
+        for (int year = startYear; year <= currentYear; year++) {
+            yearlySales.put(year, BigDecimal.ZERO);
+        }
+
+        // Count orders with valid dates
+        int validOrderCount = 0;
+
+        // Aggregate sales by year
+        for (Order order : orders) {
+            LocalDate orderDate = parseOrderDate(order.getDate());
+
+            if (orderDate != null) {
+                validOrderCount++;
+
+                int year = orderDate.getYear();
+
+                // Only include orders in our year range
+                if (year >= startYear && year <= currentYear) {
+                    yearlySales.put(
+                            year,
+                            yearlySales.getOrDefault(year, BigDecimal.ZERO).add(order.getTotalAmount())
+                    );
+                }
+            }
+        }
+
+        logger.info("Found {} orders with valid dates out of {} total for yearly view", validOrderCount, orders.size());
+
+        // Convert to chart format
+        List<Map<String, Object>> chartData = new ArrayList<>();
+
+        for (Map.Entry<Integer, BigDecimal> entry : yearlySales.entrySet()) {
+            Map<String, Object> dataPoint = new HashMap<>();
+            dataPoint.put("name", entry.getKey().toString());
+            dataPoint.put("value", entry.getValue().intValue()); // Use actual value
+            chartData.add(dataPoint);
+        }
+
+        return chartData;
+    }
+
+    private String calculateTrend(double currentValue, double changePercent) {
+        // In a real app, you would calculate this based on historical data
+        // For now, we're using hardcoded example values
+        String direction = changePercent >= 0 ? "Up" : "Down";
+        return Math.abs(changePercent) + "% " + direction + " from yesterday";
+    }
+}
@@ -0,0 +1,265 @@
+package com.cms.cms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redis-backed store for Idempotency-Key handling on write endpoints.
+ * The first request with a key runs and its response is stored; retries with the same key
+ * get the stored response replayed, and concurrent duplicates wait for the first one to finish.
+ * The in-flight marker is a short lease renewed while the request runs, so a slow request keeps
+ * its key however long it takes, and the key frees up soon after its owner dies.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String STATE_IN_PROGRESS = "IN_PROGRESS";
+    private static final String STATE_COMPLETED = "COMPLETED";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Completed responses are kept for a day; an in-flight marker expires if its owner dies
+    private static final Duration COMPLETED_TTL = Duration.ofHours(24);
+    private static final Duration IN_PROGRESS_TTL = Duration.ofSeconds(60);
+    private static final Duration LEASE_RENEW_INTERVAL = Duration.ofSeconds(20);
+    private static final long WAIT_TIMEOUT_MS = 10_000;
+
+    // Extend the in-flight marker only while it is still ours; a completed record is never touched
+    private static final RedisScript<Long> RENEW_LEASE = new DefaultRedisScript<>(
+            "local v = redis.call('get', KEYS[1]) " +
+                    "if v and string.find(v, ARGV[1], 1, true) then return redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+                    "return 0",
+            Long.class);
+    private static final StringRedisSerializer STRING_SERIALIZER = new StringRedisSerializer();
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Own thread, so renewals are not held up behind long @Scheduled jobs
+    private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+
+    /**
+     * Run the action at most once per (scope, key) and replay its response for retries.
+     * Without a key the action simply runs.
+     */
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return errorResponse(HttpStatus.BAD_REQUEST, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String redisKey = KEY_PREFIX + scope + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+        String owner = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+        long backoffMs = 25;
+
+        while (true) {
+            Boolean acquired;
+            try {
+                acquired = redisTemplate.opsForValue().setIfAbsent(redisKey, inProgressRecord(fingerprint, owner), IN_PROGRESS_TTL);
+            } catch (Exception e) {
+                // Redis being down must not block order submission
+                logger.warn("Idempotency store unavailable, processing request without deduplication: {}", e.getMessage());
+                return action.get();
+            }
+
+            if (Boolean.TRUE.equals(acquired)) {
+                return executeAndStore(redisKey, fingerprint, owner, action);
+            }
+
+            Object value;
+            try {
+                value = redisTemplate.opsForValue().get(redisKey);
+            } catch (Exception e) {
+                logger.warn("Idempotency store unavailable, processing request without deduplication: {}", e.getMessage());
+                return action.get();
+            }
+
+            if (value == null) {
+                // The owner failed and released the key, try to take it over after backing off
+                if (System.currentTimeMillis() >= deadline) {
+                    return errorResponse(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+                }
+                sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 200);
+                continue;
+            }
+            if (!(value instanceof Map)) {
+                logger.error("Unreadable record stored for idempotency key {}", redisKey);
+                return errorResponse(HttpStatus.CONFLICT, "The stored state for this " + HEADER + " could not be read");
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> record = (Map<String, Object>) value;
+            if (!fingerprint.equals(record.get("fingerprint"))) {
+                return errorResponse(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used with a different request body");
+            }
+
+            if (STATE_COMPLETED.equals(record.get("state"))) {
+                logger.info("Replaying stored response for idempotency key {}", redisKey);
+                return replay(record);
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                return errorResponse(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            }
+
+            sleep(backoffMs);
+            backoffMs = Math.min(backoffMs * 2, 200);
+        }
+    }
+
+    private ResponseEntity<?> executeAndStore(String redisKey, String fingerprint, String owner,
+                                              Supplier<ResponseEntity<?>> action) {
+        long intervalMs = LEASE_RENEW_INTERVAL.toMillis();
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(
+                () -> renewLease(redisKey, owner), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(redisKey);
+            throw e;
+        } finally {
+            renewal.cancel(false);
+        }
+
+        // Server errors, load shedding (429) and conflicts are not final, so let the client retry them
+        HttpStatusCode statusCode = response.getStatusCode();
+        if (statusCode.is5xxServerError()
+                || statusCode.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || statusCode.value() == HttpStatus.CONFLICT.value()) {
+            release(redisKey);
+            return response;
+        }
+
+        try {
+            Map<String, Object> record = new HashMap<>();
+            record.put("state", STATE_COMPLETED);
+            record.put("fingerprint", fingerprint);
+            record.put("status", response.getStatusCode().value());
+            record.put("body", response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null);
+            redisTemplate.opsForValue().set(redisKey, record, COMPLETED_TTL);
+        } catch (Exception e) {
+            logger.error("Failed to store response for idempotency key {}", redisKey, e);
+            release(redisKey);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Map<String, Object> record) {
+        int status = ((Number) record.get("status")).intValue();
+        Object body = record.get("body");
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).header(REPLAYED_HEADER, "true");
+        if (body == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(body.toString());
+    }
+
+    private void release(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            logger.error("Error releasing idempotency key {}", redisKey, e);
+        }
+    }
+
+    private void renewLease(String redisKey, String owner) {
+        try {
+            redisTemplate.execute(RENEW_LEASE, STRING_SERIALIZER, LONG_SERIALIZER, List.of(redisKey),
+                    owner, String.valueOf(IN_PROGRESS_TTL.toMillis()));
+        } catch (Exception e) {
+            logger.warn("Could not renew idempotency lease {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> inProgressRecord(String fingerprint, String owner) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("state", STATE_IN_PROGRESS);
+        record.put("fingerprint", fingerprint);
+        record.put("owner", owner);
+        return record;
+    }
+
+    /**
+     * SHA-256 of the request body as JSON, so a reused key with a different payload is detected
+     */
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint request", e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight request", e);
+        }
+    }
+
+    private ResponseEntity<?> errorResponse(HttpStatus status, String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -0,0 +1,672 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.config.RedisCircuitBreaker;
+import com.cms.cms.dto.OrderAnalyticsDTO;
+import com.cms.cms.model.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-node columnar snapshot of all orders for admin reporting. Each order is one row across
+ * primitive arrays (order date as epoch day, organization, status ordinal, amount in minor
+ * units), so a time-bucket/organization/status group-by is a single pass over a few arrays
+ * with no entity loading, BigDecimal arithmetic or database round trip. Large snapshots are
+ * aggregated in parallel on the common fork/join pool.
+ * <p>
+ * Committed order changes are applied after commit and announced to the other nodes over Redis
+ * pub/sub; a periodic rebuild picks up anything missed, such as plain JDBC writes.
+ */
+@Component
+public class OrderAnalyticsEngine implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsEngine.class);
+
+    static final String CHANNEL = "order-analytics";
+
+    // Rows below this are aggregated on the calling thread
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MIN_SPLIT_ROWS = 1 << 14;
+    // Keeps the day-to-bucket table of a query bounded
+    private static final int MAX_RANGE_DAYS = 366 * 100;
+
+    private static final byte REMOVED = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    // Order reads also run from after-commit callbacks, so they always get their own transaction
+    private TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; replaced wholesale by a rebuild
+    private Columns columns = new Columns(0);
+    private boolean ready;
+    // Changes that arrive while a rebuild is reading the table, replayed onto the new snapshot
+    private List<String> changesDuringRebuild;
+
+    /**
+     * The column store. Rows are never moved, so a removed order only gets its status cleared
+     * and its row is dropped at the next rebuild.
+     */
+    static final class Columns {
+        long[] ids;
+        int[] epochDays;
+        int[] orgSlots;
+        byte[] statuses;
+        long[] amounts;
+        int size;
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+
+        final LongIntMap rowsById;
+        // Organizations are stored as dense slots so they can index the accumulators directly
+        final Map<Integer, Integer> slotsByOrgId = new HashMap<>();
+        int[] orgIdsBySlot = new int[16];
+
+        Columns(int capacity) {
+            int initial = Math.max(capacity, 1024);
+            ids = new long[initial];
+            epochDays = new int[initial];
+            orgSlots = new int[initial];
+            statuses = new byte[initial];
+            amounts = new long[initial];
+            rowsById = new LongIntMap(initial);
+        }
+
+        void upsert(long id, int epochDay, Integer orgId, OrderStatus status, long amount) {
+            int row = rowsById.get(id);
+            if (row < 0) {
+                if (size == ids.length) {
+                    grow();
+                }
+                row = size++;
+                ids[row] = id;
+                epochDays[row] = epochDay;
+                rowsById.put(id, row);
+            } else if (epochDay != NO_DATE) {
+                epochDays[row] = epochDay;
+            }
+            orgSlots[row] = orgSlot(orgId);
+            statuses[row] = (byte) (status != null ? status.ordinal() : OrderStatus.PENDING.ordinal());
+            amounts[row] = amount;
+
+            int day = epochDays[row];
+            if (day != NO_DATE) {
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+        }
+
+        void remove(long id) {
+            int row = rowsById.get(id);
+            if (row >= 0) {
+                statuses[row] = REMOVED;
+            }
+        }
+
+        int orgCount() {
+            return slotsByOrgId.size();
+        }
+
+        private int orgSlot(Integer orgId) {
+            if (orgId == null) {
+                return -1;
+            }
+            Integer slot = slotsByOrgId.get(orgId);
+            if (slot == null) {
+                slot = slotsByOrgId.size();
+                if (slot == orgIdsBySlot.length) {
+                    orgIdsBySlot = Arrays.copyOf(orgIdsBySlot, slot * 2);
+                }
+                orgIdsBySlot[slot] = orgId;
+                slotsByOrgId.put(orgId, slot);
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            orgSlots = Arrays.copyOf(orgSlots, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+    }
+
+    /**
+     * Order id to row index without boxing: open addressing with linear probing over parallel
+     * key/value arrays, kept at most half full. Rows are never removed, so neither are entries.
+     */
+    static final class LongIntMap {
+        private static final int EMPTY = -1;
+
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, EMPTY);
+            mask = capacity - 1;
+        }
+
+        // Row of the id, or -1 when absent
+        int get(long key) {
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                int value = values[i];
+                if (value == EMPTY || keys[i] == key) {
+                    return value;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (size * 2 >= keys.length) {
+                resize();
+            }
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                if (values[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+            }
+        }
+
+        private int index(long key) {
+            // Fibonacci hashing spreads sequential ids over the whole table
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, EMPTY);
+            mask = keys.length - 1;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A query compiled against the current snapshot: filters as primitives and a lookup table
+     * from day offset to bucket, so the scan loop does no date arithmetic
+     */
+    static final class Plan {
+        int fromDay;
+        int toDay;
+        // Null for an unbounded ALL query, which also counts orders without a usable date
+        int[] bucketByDay;
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        int orgSlot = -1;
+        int statusMask;
+        OrderAnalyticsDTO.GroupBy groupBy;
+        int groups;
+
+        int cells() {
+            return Math.max(bucketStarts.size(), 1) * groups;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reload every order in case a change notification was missed
+     */
+    @Scheduled(fixedDelayString = "${app.order-analytics.rebuild-interval-ms:900000}",
+            initialDelayString = "${app.order-analytics.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+            Columns rebuilt = transactionTemplate.execute(status -> {
+                Columns snapshot = new Columns(columns.size);
+                try (Stream<Object[]> rows = orderRepository.streamAnalyticsColumns()) {
+                    rows.forEach(row -> load(snapshot, row));
+                }
+                return snapshot;
+            });
+
+            replaceSnapshot(rebuilt);
+            logger.info("Order analytics snapshot built with {} orders in {} ms",
+                    rebuilt.size, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Failed to build order analytics snapshot, reports fall back to the database", e);
+        }
+    }
+
+    /**
+     * Swap in a freshly loaded snapshot, replaying the changes committed while it was loading
+     */
+    void replaceSnapshot(Columns rebuilt) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.forEach(change -> applyChange(rebuilt, change));
+            }
+            columns = rebuilt;
+            ready = true;
+        } finally {
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reload one organization's orders after rows were written without entity events, e.g. an import
+     */
+    public void refreshOrganization(Integer orgId) {
+        reloadOrganization(orgId);
+        circuitBreaker.run(() -> redisTemplate.convertAndSend(CHANNEL, "org|" + orgId));
+    }
+
+    /**
+     * Apply a committed order change locally and tell the other nodes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        if (event.orderId() == null) {
+            return;
+        }
+
+        String change = event.hasNewState()
+                ? upsertChange(event.orderId(), event.orderDate(), event.newOrgId(), event.newStatus(), event.newTotalAmount())
+                : "removed|" + event.orderId();
+        apply(List.of(change));
+        circuitBreaker.run(() -> redisTemplate.convertAndSend(CHANNEL, change));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String change = String.valueOf(redisTemplate.getValueSerializer().deserialize(message.getBody()));
+            if (change.startsWith("org|")) {
+                reloadOrganization(Integer.parseInt(change.substring(4)));
+            } else {
+                apply(List.of(change));
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed order analytics message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Order count and total amount per time bucket, optionally split by organization or status
+     */
+    public OrderAnalyticsDTO.Result query(OrderAnalyticsDTO.Query query) {
+        long startedAt = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                throw new IllegalStateException("Order analytics snapshot is not built yet");
+            }
+
+            Plan plan = plan(columns, query);
+            long[][] totals;
+            if (plan == null) {
+                totals = null;
+            } else if (columns.size >= PARALLEL_THRESHOLD) {
+                int splitRows = Math.max(MIN_SPLIT_ROWS,
+                        columns.size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+                totals = ForkJoinPool.commonPool().invoke(new AggregateTask(columns, plan, 0, columns.size, splitRows));
+            } else {
+                totals = new long[2][plan.cells()];
+                aggregate(columns, plan, 0, columns.size, totals[0], totals[1]);
+            }
+
+            List<OrderAnalyticsDTO.Row> rows = plan == null ? List.of() : toRows(columns, plan, totals);
+            return new OrderAnalyticsDTO.Result(rows, columns.size, (System.nanoTime() - startedAt) / 1000);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The scan loop: filter each row and add it to its bucket/group cell
+     */
+    static void aggregate(Columns columns, Plan plan, int fromRow, int toRow, long[] counts, long[] sums) {
+        int[] epochDays = columns.epochDays;
+        int[] orgSlots = columns.orgSlots;
+        byte[] statuses = columns.statuses;
+        long[] amounts = columns.amounts;
+        int[] bucketByDay = plan.bucketByDay;
+        int fromDay = plan.fromDay;
+        int toDay = plan.toDay;
+        int orgFilter = plan.orgSlot;
+        int statusMask = plan.statusMask;
+        int groups = plan.groups;
+        OrderAnalyticsDTO.GroupBy groupBy = plan.groupBy;
+
+        for (int row = fromRow; row < toRow; row++) {
+            int status = statuses[row];
+            if (status < 0 || (statusMask & (1 << status)) == 0) {
+                continue;
+            }
+            int orgSlot = orgSlots[row];
+            if (orgFilter >= 0 && orgSlot != orgFilter) {
+                continue;
+            }
+
+            int bucket = 0;
+            if (bucketByDay != null) {
+                int day = epochDays[row];
+                if (day < fromDay || day > toDay) {
+                    continue;
+                }
+                bucket = bucketByDay[day - fromDay];
+            }
+
+            int group;
+            switch (groupBy) {
+                case STATUS -> group = status;
+                case ORGANIZATION -> group = orgSlot + 1;
+                default -> group = 0;
+            }
+
+            int cell = bucket * groups + group;
+            counts[cell]++;
+            sums[cell] += amounts[row];
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<long[][]> {
+        private final Columns columns;
+        private final Plan plan;
+        private final int fromRow;
+        private final int toRow;
+        private final int splitRows;
+
+        AggregateTask(Columns columns, Plan plan, int fromRow, int toRow, int splitRows) {
+            this.columns = columns;
+            this.plan = plan;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.splitRows = splitRows;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (toRow - fromRow <= splitRows) {
+                long[][] totals = new long[2][plan.cells()];
+                aggregate(columns, plan, fromRow, toRow, totals[0], totals[1]);
+                return totals;
+            }
+
+            int middle = (fromRow + toRow) >>> 1;
+            AggregateTask left = new AggregateTask(columns, plan, fromRow, middle, splitRows);
+            left.fork();
+            long[][] totals = new AggregateTask(columns, plan, middle, toRow, splitRows).compute();
+            long[][] leftTotals = left.join();
+            for (int cell = 0; cell < totals[0].length; cell++) {
+                totals[0][cell] += leftTotals[0][cell];
+                totals[1][cell] += leftTotals[1][cell];
+            }
+            return totals;
+        }
+    }
+
+    // Caller holds the read lock; returns null when the query cannot match anything
+    private static Plan plan(Columns columns, OrderAnalyticsDTO.Query query) {
+        Plan plan = new Plan();
+        OrderAnalyticsDTO.Bucket bucket = query.getBucket() != null ? query.getBucket() : OrderAnalyticsDTO.Bucket.ALL;
+        plan.groupBy = query.getGroupBy() != null ? query.getGroupBy() : OrderAnalyticsDTO.GroupBy.NONE;
+        plan.groups = switch (plan.groupBy) {
+            case STATUS -> STATUSES.length;
+            // Slot 0 collects orders without an organization
+            case ORGANIZATION -> columns.orgCount() + 1;
+            default -> 1;
+        };
+
+        for (OrderStatus status : query.getStatuses() != null && !query.getStatuses().isEmpty()
+                ? query.getStatuses() : EnumSet.allOf(OrderStatus.class)) {
+            plan.statusMask |= 1 << status.ordinal();
+        }
+
+        if (query.getOrgId() != null) {
+            Integer slot = columns.slotsByOrgId.get(query.getOrgId());
+            if (slot == null) {
+                return null;
+            }
+            plan.orgSlot = slot;
+        }
+
+        boolean bounded = query.getFromDate() != null || query.getToDate() != null;
+        if (bucket == OrderAnalyticsDTO.Bucket.ALL && !bounded) {
+            plan.bucketStarts.add(null);
+            return plan;
+        }
+        if (query.getFromDate() != null && query.getToDate() != null && query.getFromDate().isAfter(query.getToDate())) {
+            throw new IllegalArgumentException("fromDate " + query.getFromDate() + " is after toDate " + query.getToDate());
+        }
+
+        // Open ends default to the dates present in the snapshot
+        plan.fromDay = query.getFromDate() != null ? (int) query.getFromDate().toEpochDay() : columns.minDay;
+        plan.toDay = query.getToDate() != null ? (int) query.getToDate().toEpochDay() : columns.maxDay;
+        if (plan.fromDay > plan.toDay) {
+            return null;
+        }
+        if ((long) plan.toDay - plan.fromDay >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range is too long, the maximum is " + MAX_RANGE_DAYS + " days");
+        }
+
+        plan.bucketByDay = new int[plan.toDay - plan.fromDay + 1];
+        LocalDate rangeStart = LocalDate.ofEpochDay(plan.fromDay);
+        LocalDate previousStart = null;
+        for (int day = plan.fromDay; day <= plan.toDay; day++) {
+            LocalDate start = bucketStart(LocalDate.ofEpochDay(day), bucket, rangeStart);
+            if (!start.equals(previousStart)) {
+                plan.bucketStarts.add(start);
+                previousStart = start;
+            }
+            plan.bucketByDay[day - plan.fromDay] = plan.bucketStarts.size() - 1;
+        }
+        return plan;
+    }
+
+    private static LocalDate bucketStart(LocalDate date, OrderAnalyticsDTO.Bucket bucket, LocalDate rangeStart) {
+        return switch (bucket) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+            case ALL -> rangeStart;
+        };
+    }
+
+    // Every time bucket is reported so charts get their zeros; groups only where there were orders
+    private static List<OrderAnalyticsDTO.Row> toRows(Columns columns, Plan plan, long[][] totals) {
+        List<OrderAnalyticsDTO.Row> rows = new ArrayList<>();
+        for (int bucket = 0; bucket < Math.max(plan.bucketStarts.size(), 1); bucket++) {
+            LocalDate bucketStart = plan.bucketStarts.isEmpty() ? null : plan.bucketStarts.get(bucket);
+            for (int group = 0; group < plan.groups; group++) {
+                int cell = bucket * plan.groups + group;
+                long count = totals[0][cell];
+                if (count == 0 && plan.groupBy != OrderAnalyticsDTO.GroupBy.NONE) {
+                    continue;
+                }
+
+                Integer orgId = null;
+                OrderStatus status = null;
+                if (plan.groupBy == OrderAnalyticsDTO.GroupBy.ORGANIZATION && group > 0) {
+                    orgId = columns.orgIdsBySlot[group - 1];
+                } else if (plan.groupBy == OrderAnalyticsDTO.GroupBy.STATUS) {
+                    status = STATUSES[group];
+                }
+                rows.add(new OrderAnalyticsDTO.Row(bucketStart, orgId, status, count,
+                        BigDecimal.valueOf(totals[1][cell], 2)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Changes travel as "order|id|epochDay|orgId|status|amountMinorUnits" or "removed|id"; an
+     * order change carries the full new state, so applying one twice is harmless
+     */
+    private static String upsertChange(Long orderId, String orderDate, Integer orgId, OrderStatus status, BigDecimal amount) {
+        return "order|" + orderId + "|" + toEpochDay(orderDate) + "|" + (orgId != null ? orgId : "")
+                + "|" + (status != null ? status.name() : "") + "|" + toMinorUnits(amount);
+    }
+
+    private void apply(List<String> changes) {
+        lock.writeLock().lock();
+        try {
+            for (String change : changes) {
+                applyChange(columns, change);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private static void applyChange(Columns target, String change) {
+        String[] parts = change.split("\\|", -1);
+        long id = Long.parseLong(parts[1]);
+        if ("removed".equals(parts[0])) {
+            target.remove(id);
+        } else if ("order".equals(parts[0])) {
+            target.upsert(id, Integer.parseInt(parts[2]),
+                    parts[3].isEmpty() ? null : Integer.valueOf(parts[3]),
+                    parts[4].isEmpty() ? null : OrderStatus.valueOf(parts[4]),
+                    Long.parseLong(parts[5]));
+        }
+    }
+
+    private void reloadOrganization(Integer orgId) {
+        List<String> changes = transactionTemplate.execute(status ->
+                orderRepository.findAnalyticsColumnsByOrgId(orgId).stream()
+                        .map(row -> upsertChange(((Number) row[0]).longValue(), (String) row[1], orgId,
+                                (OrderStatus) row[3], (BigDecimal) row[4]))
+                        .toList());
+        apply(changes);
+    }
+
+    // Row layout of OrderRepository.streamAnalyticsColumns: id, date, orgId, status, totalAmount
+    private static void load(Columns target, Object[] row) {
+        target.upsert(((Number) row[0]).longValue(), toEpochDay((String) row[1]),
+                row[2] != null ? ((Number) row[2]).intValue() : null,
+                (OrderStatus) row[3], toMinorUnits((BigDecimal) row[4]));
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Epoch day of an order's display date, which is either ISO ("2025-03-20 22:38:18") or
+     * "dd MMM yyyy"; unparseable dates are kept out of every dated query
+     */
+    static int toEpochDay(String date) {
+        if (date == null || date.isBlank()) {
+            return NO_DATE;
+        }
+        try {
+            LocalDate parsed = date.contains("-")
+                    ? LocalDate.parse(date.trim().split(" ")[0])
+                    : LocalDate.parse(date.trim(), DISPLAY_DATE_FORMAT);
+            return (int) parsed.toEpochDay();
+        } catch (Exception e) {
+            return NO_DATE;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cms.cms.service;
+
+import com.cms.cms.model.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * An order was created, changed status or amount, or was removed.
+ * The "before" side is empty for new orders and the "after" side is empty for removed ones.
+ * orderDate is the order's display date, or null when it is not known to the publisher.
+ */
+public record OrderChangeEvent(Long orderId, String orderDate,
+                               Integer oldOrgId, OrderStatus oldStatus, BigDecimal oldTotalAmount,
+                               Integer newOrgId, OrderStatus newStatus, BigDecimal newTotalAmount) {
+
+    public static OrderChangeEvent created(Long orderId, String orderDate,
+                                           Integer orgId, OrderStatus status, BigDecimal totalAmount) {
+        return new OrderChangeEvent(orderId, orderDate, null, null, null, orgId, status, totalAmount);
+    }
+
+    public static OrderChangeEvent removed(Long orderId, Integer orgId, OrderStatus status, BigDecimal totalAmount) {
+        return new OrderChangeEvent(orderId, null, orgId, status, totalAmount, null, null, null);
+    }
+
+    public boolean hasOldState() {
+        return oldOrgId != null;
+    }
+
+    public boolean hasNewState() {
+        return newOrgId != null;
+    }
+}
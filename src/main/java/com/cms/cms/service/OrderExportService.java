@@ -0,0 +1,229 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.config.Workload;
+import com.cms.cms.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams an organization's full order history as CSV or NDJSON.
+ * Rows come from a forward-only cursor and are written as they are read, so memory use
+ * does not grow with the size of the export.
+ */
+@Service
+public class OrderExportService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    // Flat order columns only; line items are lazily loaded and left out of exports
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", Order::getId),
+            new Column("orderId", Order::getOrderId),
+            new Column("orgId", Order::getOrgId),
+            new Column("status", order -> order.getStatus() != null ? order.getStatus().getLabel() : null),
+            new Column("date", Order::getDate),
+            new Column("productName", Order::getProductName),
+            new Column("brand", Order::getBrand),
+            new Column("type", Order::getType),
+            new Column("unitType", Order::getUnitType),
+            new Column("batchSize", Order::getBatchSize),
+            new Column("quantity", Order::getQuantity),
+            new Column("mrp", Order::getMrp),
+            new Column("price", Order::getPrice),
+            new Column("rate", Order::getRate),
+            new Column("totalAmount", Order::getTotalAmount),
+            new Column("prnNo", Order::getPrnNo),
+            new Column("sizeCode", Order::getSizeCode),
+            new Column("pvcColor", Order::getPvcColor),
+            new Column("packingSize", Order::getPackingSize),
+            new Column("composition", Order::getComposition),
+            new Column("shippingAddress", Order::getShippingAddress),
+            new Column("trackingNumber", Order::getTrackingNumber),
+            new Column("expectedDelivery", Order::getExpectedDelivery),
+            new Column("remarks", Order::getRemarks)
+    );
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Map the format query parameter to an export format, or null when it is not supported
+     */
+    public static Format parseFormat(String format) {
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return Format.CSV;
+            case "ndjson":
+            case "jsonl":
+                return Format.NDJSON;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Download response for an organization's orders: the rows are written by the body on the
+     * async request thread, gzip-compressed when the client accepts it
+     */
+    public ResponseEntity<StreamingResponseBody> exportResponse(Integer orgId, Format format,
+                                                                String acceptEncoding, String fileName) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            // The body runs off the request thread, so mark it as reporting work here as well
+            Workload previous = Workload.REPORTING.enter();
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+                    exportOrders(orgId, format, gzipStream);
+                    gzipStream.finish();
+                } else {
+                    exportOrders(orgId, format, outputStream);
+                }
+            } finally {
+                Workload.restore(previous);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "."
+                        + (format == Format.CSV ? "csv" : "ndjson") + "\"")
+                .contentType(format == Format.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Write all orders of an organization to the given stream
+     */
+    public long exportOrders(Integer orgId, Format format, OutputStream outputStream) {
+        long startedAt = System.currentTimeMillis();
+        logger.info("Starting {} order export for organization {}", format, orgId);
+
+        // Postgres only honours the fetch size inside a transaction, otherwise the whole result is loaded
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        Long rows = readOnlyTransaction.execute(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            long count = 0;
+
+            try (Stream<Order> orders = orderRepository.streamByOrgId(orgId)) {
+                if (format == Format.CSV) {
+                    writeCsvHeader(writer);
+                }
+
+                for (Order order : (Iterable<Order>) orders::iterator) {
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, order);
+                    } else {
+                        writeJsonRow(writer, order);
+                    }
+
+                    // Keep the persistence context from accumulating every row read so far
+                    entityManager.detach(order);
+
+                    if (++count % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+
+        long exported = rows != null ? rows : 0;
+        logger.info("Exported {} orders for organization {} in {} ms",
+                exported, orgId, System.currentTimeMillis() - startedAt);
+        return exported;
+    }
+
+    private void writeCsvHeader(Writer writer) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(COLUMNS.get(i).name);
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, Order order) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object value = COLUMNS.get(i).extractor.apply(order);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void writeJsonRow(Writer writer, Order order) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (Column column : COLUMNS) {
+            row.put(column.name, column.extractor.apply(order));
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record Column(String name, Function<Order, Object> extractor) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.cms.cms.service;
+
+/**
+ * Source of unique, human-readable order numbers (the {@code orderId} column).
+ * Implementations must be thread-safe and must not need to coordinate with other instances.
+ */
+public interface OrderIdGenerator {
+
+    /**
+     * Generate the next numeric ID
+     */
+    long nextId();
+
+    /**
+     * Generate the next order number in its display form, e.g. "ORD-0DKX3M5T8G400"
+     */
+    String nextOrderId();
+}
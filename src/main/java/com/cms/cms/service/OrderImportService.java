@@ -0,0 +1,461 @@
+package com.cms.cms.service;
+
+import com.cms.cms.model.OrderStatus;
+import com.cms.cms.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Streaming bulk order import from CSV or NDJSON.
+ * Lines are parsed one at a time straight off the request stream, validated against the
+ * organization's assigned products and written with JDBC batch inserts.
+ */
+@Service
+public class OrderImportService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderImportService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_LINES = 100_000;
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    // Must match the allocation size of the orders_seq generator on Order
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (id, organization_id, order_id, status, total_amount, " +
+            "shipping_address, order_date, product_name, brand, type, unit_type, batch_size, quantity, price, mrp, " +
+            "composition, size_code, pvc_color, packing_size, remarks, placed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now())";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrgOrderStatsService orgOrderStatsService;
+
+    @Autowired
+    private OrderAnalyticsEngine orderAnalyticsEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Import order lines for an organization from the given stream
+     */
+    public ImportReport importOrders(Integer orgId, InputStream inputStream, Format format) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        logger.info("Starting {} order import for organization {}", format, orgId);
+
+        ProductCatalog catalog = new ProductCatalog(productService.getProductsForOrganization(Long.valueOf(orgId)));
+        ImportReport report = new ImportReport(format.name());
+        String orderDate = LocalDateTime.now().format(ORDER_DATE_FORMAT);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchLines = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                // The first non-empty CSV line names the columns
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(line).toArray(new String[0]);
+                    continue;
+                }
+
+                report.linesRead++;
+                try {
+                    Map<String, Object> fields = format == Format.CSV ? toFieldMap(header, line) : parseJsonLine(line);
+                    batch.add(toInsertParams(orgId, fields, catalog, orderDate));
+                    batchLines.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    report.reject(lineNumber, e.getMessage());
+                }
+
+                if (batch.size() >= BATCH_SIZE) {
+                    flushBatch(batch, batchLines, report);
+                }
+            }
+        }
+
+        flushBatch(batch, batchLines, report);
+
+        // Rows were inserted with plain JDBC, so the order counters are rebuilt rather than incremented
+        if (report.accepted > 0) {
+            orgOrderStatsService.rebuild(orgId);
+            orderAnalyticsEngine.refreshOrganization(orgId);
+        }
+
+        report.finish(System.currentTimeMillis() - startedAt);
+        logger.info("Finished order import for organization {}: {} lines, {} accepted, {} rejected in {} ms",
+                orgId, report.linesRead, report.accepted, report.rejected, report.durationMs);
+        return report;
+    }
+
+    /**
+     * Write one batch in its own transaction so a bad batch does not roll back earlier ones
+     */
+    private void flushBatch(List<Object[]> batch, List<Integer> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                assignPrimaryKeys(batch);
+                jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, batch);
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] row = batch.get(i);
+                report.accept(batchLines.get(i), (Long) row[0], (String) row[2]);
+            }
+        } catch (Exception e) {
+            // The driver message can carry SQL and values, so it stays in the log
+            logger.error("Failed to insert import batch of {} orders (lines {}-{})",
+                    batch.size(), batchLines.get(0), batchLines.get(batchLines.size() - 1), e);
+            for (Integer lineNumber : batchLines) {
+                report.reject(lineNumber, "Could not be saved, please retry this line");
+            }
+        }
+
+        batch.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * Take ids from the same pooled-lo sequence Hibernate uses for orders, one block per nextval
+     */
+    private void assignPrimaryKeys(List<Object[]> batch) {
+        long next = 0;
+        long limit = 0;
+        for (Object[] row : batch) {
+            if (next == limit) {
+                next = jdbcTemplate.queryForObject("SELECT nextval('orders_seq')", Long.class);
+                limit = next + ID_BLOCK_SIZE;
+            }
+            row[0] = next++;
+        }
+    }
+
+    /**
+     * Validate one parsed line and turn it into insert parameters
+     */
+    private Object[] toInsertParams(Integer orgId, Map<String, Object> fields, ProductCatalog catalog, String orderDate) {
+        Product product = catalog.resolve(asLong(fields.get("productId")), asString(fields.get("productName")));
+
+        Integer quantity = asInteger(fields.get("quantity"));
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Valid quantity is required");
+        }
+
+        BigDecimal mrp = asDecimal(fields.get("mrp"));
+        if (mrp == null) {
+            mrp = product.getPrice();
+        }
+        BigDecimal totalAmount = mrp != null ? mrp.multiply(BigDecimal.valueOf(quantity)) : null;
+
+        String batchSize = asString(fields.get("batchSize"));
+        if (batchSize != null && product.getAvailableBatches() != null && !product.getAvailableBatches().isEmpty()
+                && !product.getAvailableBatches().contains(batchSize)) {
+            throw new IllegalArgumentException("Batch size " + batchSize + " is not available for " + product.getName());
+        }
+
+        return new Object[]{
+                null, // id, assigned when the batch is flushed
+                orgId,
+                orderIdGenerator.nextOrderId(),
+                OrderStatus.PENDING.name(),
+                totalAmount,
+                asString(fields.get("shippingAddress")),
+                orderDate,
+                product.getName(),
+                asString(fields.get("brand")),
+                fields.get("type") != null ? asString(fields.get("type")) : product.getType(),
+                asString(fields.get("unitType")),
+                batchSize,
+                quantity,
+                mrp,
+                mrp,
+                asString(fields.get("composition")),
+                asString(fields.get("sizeCode")),
+                asString(fields.get("pvcColor")),
+                asString(fields.get("packingSize")),
+                asString(fields.get("remarks"))
+        };
+    }
+
+    private Map<String, Object> parseJsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Object> toFieldMap(String[] header, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.size());
+        }
+
+        Map<String, Object> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                fields.put(header[i].trim(), value);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Split a single CSV line, honouring double-quoted fields and "" escapes
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String asString(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Long asLong(Object value) {
+        String text = asString(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid productId: " + text);
+        }
+    }
+
+    private static Integer asInteger(Object value) {
+        String text = asString(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity: " + text);
+        }
+    }
+
+    private static BigDecimal asDecimal(Object value) {
+        String text = asString(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid mrp: " + text);
+        }
+    }
+
+    /**
+     * Lookup of the organization's assigned products by ID and by name
+     */
+    private static class ProductCatalog {
+        private final Map<Long, Product> byId = new HashMap<>();
+        private final Map<String, Product> byName = new HashMap<>();
+
+        ProductCatalog(List<Product> products) {
+            for (Product product : products) {
+                if (Boolean.FALSE.equals(product.getIsAvailable())) {
+                    continue;
+                }
+                byId.put(product.getId(), product);
+                if (product.getName() != null) {
+                    byName.put(product.getName().toLowerCase(Locale.ROOT), product);
+                }
+            }
+        }
+
+        Product resolve(Long productId, String productName) {
+            if (productId == null && productName == null) {
+                throw new IllegalArgumentException("productId or productName is required");
+            }
+
+            Product product = productId != null
+                    ? byId.get(productId)
+                    : byName.get(productName.toLowerCase(Locale.ROOT));
+
+            if (product == null) {
+                throw new IllegalArgumentException("Product " + (productId != null ? productId : productName)
+                        + " is not assigned to this organization");
+            }
+            return product;
+        }
+    }
+
+    /**
+     * Result of an import: totals plus one entry per line, in line order, with the generated
+     * id and order number of an accepted line or the reason a line was rejected
+     */
+    public static class ImportReport {
+        private final String format;
+        private int linesRead;
+        private int accepted;
+        private int rejected;
+        private long durationMs;
+        private boolean linesTruncated;
+        // Outcomes arrive out of line order (parse errors before their batch), so keep them keyed by line
+        private final NavigableMap<Integer, Map<String, Object>> outcomes = new TreeMap<>();
+        private List<Map<String, Object>> lines = List.of();
+
+        ImportReport(String format) {
+            this.format = format;
+        }
+
+        void accept(int lineNumber, Long id, String orderId) {
+            accepted++;
+            Map<String, Object> outcome = outcome(lineNumber, "accepted");
+            if (outcome != null) {
+                outcome.put("id", id);
+                outcome.put("orderId", orderId);
+            }
+        }
+
+        void reject(int lineNumber, String message) {
+            rejected++;
+            Map<String, Object> outcome = outcome(lineNumber, "rejected");
+            if (outcome != null) {
+                outcome.put("error", message);
+            }
+        }
+
+        // Keeps the first MAX_REPORTED_LINES lines by line number; null for a line past that.
+        // The totals still count every line.
+        private Map<String, Object> outcome(int lineNumber, String status) {
+            if (outcomes.size() >= MAX_REPORTED_LINES) {
+                linesTruncated = true;
+                if (lineNumber > outcomes.lastKey()) {
+                    return null;
+                }
+                outcomes.pollLastEntry();
+            }
+            Map<String, Object> outcome = new LinkedHashMap<>();
+            outcome.put("line", lineNumber);
+            outcome.put("status", status);
+            outcomes.put(lineNumber, outcome);
+            return outcome;
+        }
+
+        void finish(long durationMs) {
+            this.durationMs = durationMs;
+            lines = new ArrayList<>(outcomes.values());
+            outcomes.clear();
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public int getLinesRead() {
+            return linesRead;
+        }
+
+        public int getAccepted() {
+            return accepted;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public boolean isLinesTruncated() {
+            return linesTruncated;
+        }
+
+        // In line order
+        public List<Map<String, Object>> getLines() {
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ranked, prefix-aware search over order id, PRN number, product name and brand.
+ * On Postgres it uses the indexed search_vector column (see changelog 0014): every word of the
+ * query must match the start of a word in one of those fields, and results are ordered by
+ * ts_rank. On databases without it (H2 in tests) candidates are narrowed with LIKE and the same
+ * matching and weighting are applied in memory.
+ */
+@Service
+public class OrderSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchService.class);
+
+    public static final int MAX_RESULTS = 1000;
+    private static final int MAX_TERMS = 8;
+    private static final int MAX_CANDIDATES = 5000;
+
+    // Same weights as the A/B/C weights of search_vector
+    private static final double WEIGHT_ID = 1.0;
+    private static final double WEIGHT_PRODUCT = 0.4;
+    private static final double WEIGHT_BRAND = 0.2;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile Boolean fullTextAvailable;
+
+    /**
+     * Search orders of one organization, or all organizations when orgId is null, best matches first
+     */
+    @Transactional(readOnly = true)
+    public List<Order> search(Integer orgId, String text, int limit) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        Map<Long, Order> results = new LinkedHashMap<>();
+        // A bare number may also be the numeric order id, which is not part of the text index
+        Long numericId = parseId(text);
+        if (numericId != null) {
+            Optional<Order> byId = orgId != null
+                    ? orderRepository.findByIdAndOrgId(numericId, orgId)
+                    : orderRepository.findById(numericId);
+            byId.ifPresent(order -> results.put(order.getId(), order));
+        }
+
+        for (Order order : isFullTextAvailable()
+                ? searchIndexed(orgId, terms, maxResults)
+                : searchInMemory(orgId, terms, maxResults)) {
+            if (results.size() >= maxResults) {
+                break;
+            }
+            results.putIfAbsent(order.getId(), order);
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private List<Order> searchIndexed(Integer orgId, List<String> terms, int limit) {
+        // "para:* & 500:*" - every term, each as a prefix. A failure here leaves the transaction
+        // rollback-only on Postgres, so it is not retried in memory within the same transaction.
+        String query = String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+        return orgId != null
+                ? orderRepository.searchByOrgId(orgId, query, limit)
+                : orderRepository.searchAll(query, limit);
+    }
+
+    private List<Order> searchInMemory(Integer orgId, List<String> terms, int limit) {
+        // Only the newest orders containing the longest term are scored, never the whole table
+        String longest = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        List<Order> candidates = orderRepository.findSearchCandidates(orgId, "%" + longest + "%",
+                PageRequest.of(0, MAX_CANDIDATES));
+
+        List<ScoredOrder> matches = new ArrayList<>();
+        for (Order order : candidates) {
+            double score = score(order, terms);
+            if (score > 0) {
+                matches.add(new ScoredOrder(order, score));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(ScoredOrder::score).reversed()
+                .thenComparing(match -> match.order().getId(), Comparator.nullsLast(Comparator.reverseOrder())));
+        return matches.stream().limit(limit).map(ScoredOrder::order).toList();
+    }
+
+    private record ScoredOrder(Order order, double score) {
+    }
+
+    /**
+     * Sum of the best field weight per term, or 0 if any term matches no field
+     */
+    private static double score(Order order, List<String> terms) {
+        double total = 0;
+        for (String term : terms) {
+            double best = 0;
+            if (hasWordStartingWith(order.getOrderId(), term) || hasWordStartingWith(order.getPrnNo(), term)) {
+                best = WEIGHT_ID;
+            } else if (hasWordStartingWith(order.getProductName(), term)) {
+                best = WEIGHT_PRODUCT;
+            } else if (hasWordStartingWith(order.getBrand(), term)) {
+                best = WEIGHT_BRAND;
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // Word boundaries match the tokenizer: anything that is not a letter or digit
+    private static boolean hasWordStartingWith(String value, String prefix) {
+        if (value == null || value.length() < prefix.length()) {
+            return false;
+        }
+        int length = value.length();
+        for (int i = 0; i <= length - prefix.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(value.charAt(i))
+                    && value.regionMatches(true, i, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower-cased words of the query; punctuation separates words and is never passed to to_tsquery
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !terms.contains(word)) {
+                terms.add(word);
+                if (terms.size() == MAX_TERMS) {
+                    break;
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static Long parseId(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18 || !trimmed.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(trimmed);
+    }
+
+    /**
+     * Whether the search_vector column exists, checked once
+     */
+    private boolean isFullTextAvailable() {
+        Boolean available = fullTextAvailable;
+        if (available == null) {
+            available = detectFullText();
+            if (available == null) {
+                // Not cached, try again on the next search
+                return false;
+            }
+            fullTextAvailable = available;
+            logger.info("Order search uses {}", available ? "the Postgres full-text index" : "in-memory matching");
+        }
+        return available;
+    }
+
+    private Boolean detectFullText() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!"PostgreSQL".equalsIgnoreCase(metaData.getDatabaseProductName())) {
+                return false;
+            }
+            try (ResultSet columns = metaData.getColumns(null, null, "orders", "search_vector")) {
+                return columns.next();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not check for the order search index: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.cms.cms.service;
 
+import com.cms.cms.dto.BulkOrderActionDTO;
 import com.cms.cms.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -70,4 +71,14 @@ public interface OrgOrderService {
      * Reject a pending order
      */
     Order rejectOrder(Long orderId, String rejectionReason);
+
+    /**
+     * Approve many pending orders in one transaction, returning an outcome per order
+     */
+    List<BulkOrderActionDTO.Result> approveOrders(List<BulkOrderActionDTO.ApprovalItem> approvals);
+
+    /**
+     * Reject many pending orders with a single conditional update, returning an outcome per order
+     */
+    List<BulkOrderActionDTO.Result> rejectOrders(List<Long> orderIds, String rejectionReason);
 }
\ No newline at end of file
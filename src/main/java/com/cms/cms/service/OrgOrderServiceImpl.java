@@ -1,10 +1,13 @@
 package com.cms.cms.service;
 
 import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.dto.BulkOrderActionDTO;
 import com.cms.cms.model.Order;
+import com.cms.cms.model.OrderStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -16,30 +19,49 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class OrgOrderServiceImpl implements OrgOrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrgOrderServiceImpl.class);
+    private static final int MAX_BULK_ORDERS = 500;
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
     @Override
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByOrgId(Integer orgId) {
         return orderRepository.findByOrgId(orgId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersByOrgIdWithFilters(Integer orgId, Map<String, Object> filters, Pageable pageable) {
         logger.info("Fetching orders for organization {} with filters: {}", orgId, filters);
 
         try {
-            // Get all orders for this organization
-            List<Order> allOrders = getOrdersByOrgId(orgId);
+            // With a search term, start from the ranked index matches instead of every order
+            String search = filters != null ? (String) filters.get("search") : null;
+            List<Order> allOrders = search != null
+                    ? orderSearchService.search(orgId, search, OrderSearchService.MAX_RESULTS)
+                    : getOrdersByOrgId(orgId);
 
             // Apply filters
             List<Order> filteredOrders = allOrders.stream()
@@ -74,34 +96,12 @@ public class OrgOrderServiceImpl implements OrgOrderService {
             return true;
         }
 
-        // Search term filter
-        if (filters.containsKey("search")) {
-            String search = ((String) filters.get("search")).toLowerCase();
-
-            boolean matchesSearch = false;
-
-            // Check if search term matches any of these fields
-            if (order.getProductName() != null && order.getProductName().toLowerCase().contains(search)) {
-                matchesSearch = true;
-            } else if (order.getBrand() != null && order.getBrand().toLowerCase().contains(search)) {
-                matchesSearch = true;
-            } else if (order.getOrderId() != null && order.getOrderId().toLowerCase().contains(search)) {
-                matchesSearch = true;
-            } else if (order.getId() != null && order.getId().toString().contains(search)) {
-                matchesSearch = true;
-            } else if (order.getPrnNo() != null && order.getPrnNo().toLowerCase().contains(search)) {
-                matchesSearch = true;
-            }
-
-            if (!matchesSearch) {
-                return false;
-            }
-        }
+        // The search term is applied by OrderSearchService before these filters
 
         // Status filter
         if (filters.containsKey("status")) {
             String status = (String) filters.get("status");
-            if (order.getStatus() == null || !order.getStatus().equalsIgnoreCase(status)) {
+            if (order.getStatus() == null || !order.getStatus().name().equalsIgnoreCase(status)) {
                 return false;
             }
         }
@@ -202,13 +202,13 @@ public class OrgOrderServiceImpl implements OrgOrderService {
         order.setOrgId(orgId);
 
         // Set default status if not provided
-        if (order.getStatus() == null || order.getStatus().isEmpty()) {
-            order.setStatus("Pending");
+        if (order.getStatus() == null) {
+            order.setStatus(OrderStatus.PENDING);
         }
 
         // Generate order ID if not set
         if (order.getOrderId() == null || order.getOrderId().isEmpty()) {
-            order.setOrderId("ORD-" + System.currentTimeMillis());
+            order.setOrderId(orderIdGenerator.nextOrderId());
         }
 
         return orderRepository.save(order);
@@ -246,9 +246,11 @@ public class OrgOrderServiceImpl implements OrgOrderService {
 
         // Validate and copy fields that need special handling
 
-        // Handle status updates
-        if (order.getStatus() == null || order.getStatus().isEmpty()) {
-            order.setStatus(existingOrder.getStatus());
+        // Handle status updates - only transitions allowed from the current status
+        OrderStatus requestedStatus = order.getStatus();
+        order.setStatus(existingOrder.getStatus());
+        if (requestedStatus != null) {
+            order.transitionTo(requestedStatus);
         }
 
         // Handle date fields - keep original if not provided
@@ -256,6 +258,9 @@ public class OrgOrderServiceImpl implements OrgOrderService {
             order.setDate(existingOrder.getDate());
         }
 
+        // Line items are not editable through this endpoint, keep the persisted ones
+        order.setItems(existingOrder.getItems());
+
         // Log the fields being updated
         logger.info("Updating order with: productName={}, status={}, totalAmount={}, quantity={}",
                 order.getProductName(), order.getStatus(), order.getTotalAmount(), order.getQuantity());
@@ -275,8 +280,8 @@ public class OrgOrderServiceImpl implements OrgOrderService {
             Order order = orderOptional.get();
 
             // Check if order can be canceled (e.g., not already shipped)
-            if ("Pending".equals(order.getStatus()) || "Processing".equals(order.getStatus())) {
-                order.setStatus("Cancelled");
+            if (order.getStatus().canTransitionTo(OrderStatus.CANCELLED)) {
+                order.transitionTo(OrderStatus.CANCELLED);
                 orderRepository.save(order);
                 return true;
             }
@@ -288,12 +293,14 @@ public class OrgOrderServiceImpl implements OrgOrderService {
     // New methods for pending orders
 
     @Override
+    @Transactional(readOnly = true)
     public List<Order> getAllPendingOrders() {
         logger.info("Fetching all pending orders");
         return orderRepository.findAllPendingOrders();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long countPendingOrders() {
         logger.info("Counting pending orders");
         return orderRepository.countPendingOrders();
@@ -302,7 +309,7 @@ public class OrgOrderServiceImpl implements OrgOrderService {
     @Override
     public Order getPendingOrderById(Long orderId) {
         logger.info("Fetching pending order with ID: {}", orderId);
-        Optional<Order> order = orderRepository.findByIdAndStatus(orderId, "Pending");
+        Optional<Order> order = orderRepository.findByIdAndStatus(orderId, OrderStatus.PENDING);
         return order.orElse(null);
     }
 
@@ -320,7 +327,7 @@ public class OrgOrderServiceImpl implements OrgOrderService {
         Order existingOrder = existingOrderOpt.get();
 
         // Check if the order is in Pending status
-        if (!"Pending".equals(existingOrder.getStatus())) {
+        if (existingOrder.getStatus() != OrderStatus.PENDING) {
             logger.error("Cannot approve order {} - current status is {}", orderId, existingOrder.getStatus());
             throw new RuntimeException("Only pending orders can be approved");
         }
@@ -331,9 +338,10 @@ public class OrgOrderServiceImpl implements OrgOrderService {
         orderDetails.setOrgId(existingOrder.getOrgId());
         orderDetails.setOrderId(existingOrder.getOrderId());
         orderDetails.setDate(existingOrder.getDate());
+        orderDetails.setPlacedAt(existingOrder.getPlacedAt());
 
         // Set the status to Processing
-        orderDetails.setStatus("Processing");
+        orderDetails.setStatus(OrderStatus.PROCESSING);
 
         // Set expected delivery date if not provided
         if (orderDetails.getExpectedDelivery() == null) {
@@ -362,13 +370,13 @@ public class OrgOrderServiceImpl implements OrgOrderService {
         Order existingOrder = existingOrderOpt.get();
 
         // Check if the order is in Pending status
-        if (!"Pending".equals(existingOrder.getStatus())) {
+        if (existingOrder.getStatus() != OrderStatus.PENDING) {
             logger.error("Cannot reject order {} - current status is {}", orderId, existingOrder.getStatus());
             throw new RuntimeException("Only pending orders can be rejected");
         }
 
         // Update the status and add rejection reason
-        existingOrder.setStatus("Rejected");
+        existingOrder.transitionTo(OrderStatus.REJECTED);
         existingOrder.setRemarks(rejectionReason);
 
         // Save the updated order
@@ -377,4 +385,201 @@ public class OrgOrderServiceImpl implements OrgOrderService {
 
         return updatedOrder;
     }
+
+    @Override
+    @Transactional
+    public List<BulkOrderActionDTO.Result> approveOrders(List<BulkOrderActionDTO.ApprovalItem> approvals) {
+        if (approvals == null || approvals.isEmpty()) {
+            throw new IllegalArgumentException("At least one order approval is required");
+        }
+        if (approvals.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("A maximum of " + MAX_BULK_ORDERS + " orders can be approved per request");
+        }
+        logger.info("Bulk approving {} orders", approvals.size());
+
+        List<BulkOrderActionDTO.Result> results = new ArrayList<>(approvals.size());
+        Map<Long, BulkOrderActionDTO.ApprovalItem> validApprovals = new HashMap<>();
+        Map<Long, BulkOrderActionDTO.Result> resultsById = new HashMap<>();
+
+        // Validate the request details before touching the database
+        for (BulkOrderActionDTO.ApprovalItem approval : approvals) {
+            Long orderId = approval.getOrderId();
+            String error = validateApproval(approval);
+            if (error == null && validApprovals.containsKey(orderId)) {
+                error = "Duplicate order ID in request";
+            }
+
+            BulkOrderActionDTO.Result result = new BulkOrderActionDTO.Result(orderId, null, null);
+            if (error != null) {
+                result.setOutcome(BulkOrderActionDTO.Result.INVALID);
+                result.setMessage(error);
+            } else {
+                validApprovals.put(orderId, approval);
+                resultsById.put(orderId, result);
+            }
+            results.add(result);
+        }
+
+        if (validApprovals.isEmpty()) {
+            return results;
+        }
+
+        // One locking SELECT ... IN for all orders; the dirty entities are flushed as batched UPDATEs on commit
+        Set<Long> foundIds = new HashSet<>();
+        for (Order order : orderRepository.findAllByIdForUpdate(validApprovals.keySet())) {
+            foundIds.add(order.getId());
+            BulkOrderActionDTO.Result result = resultsById.get(order.getId());
+
+            if (order.getStatus() != OrderStatus.PENDING) {
+                result.setOutcome(BulkOrderActionDTO.Result.NOT_PENDING);
+                result.setMessage("Only pending orders can be approved (current status: " + order.getStatus().getLabel() + ")");
+                continue;
+            }
+
+            applyApproval(order, validApprovals.get(order.getId()));
+            result.setOutcome(BulkOrderActionDTO.Result.APPROVED);
+            result.setMessage("Order approved");
+        }
+
+        for (Map.Entry<Long, BulkOrderActionDTO.Result> entry : resultsById.entrySet()) {
+            if (!foundIds.contains(entry.getKey())) {
+                entry.getValue().setOutcome(BulkOrderActionDTO.Result.NOT_FOUND);
+                entry.getValue().setMessage("Order not found");
+            }
+        }
+
+        logger.info("Bulk approval finished: {} of {} orders approved", countOutcome(results, BulkOrderActionDTO.Result.APPROVED), approvals.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BulkOrderActionDTO.Result> rejectOrders(List<Long> orderIds, String rejectionReason) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one order ID is required");
+        }
+        if (orderIds.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("A maximum of " + MAX_BULK_ORDERS + " orders can be rejected per request");
+        }
+        if (rejectionReason == null || rejectionReason.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rejection reason is required");
+        }
+        logger.info("Bulk rejecting {} orders", orderIds.size());
+
+        Set<Long> requestedIds = new LinkedHashSet<>();
+        for (Long orderId : orderIds) {
+            if (orderId != null) {
+                requestedIds.add(orderId);
+            }
+        }
+
+        // Lock the rows and classify them, then flip every pending one with a single conditional UPDATE
+        Map<Long, OrderStatus> statuses = new HashMap<>();
+        Map<Long, Object[]> lockedRows = new HashMap<>();
+        if (!requestedIds.isEmpty()) {
+            for (Object[] row : orderRepository.findStatusesForUpdate(requestedIds)) {
+                Long id = ((Number) row[0]).longValue();
+                statuses.put(id, OrderStatus.fromString((String) row[1]));
+                lockedRows.put(id, row);
+            }
+        }
+
+        List<Long> pendingIds = new ArrayList<>();
+        for (Map.Entry<Long, OrderStatus> entry : statuses.entrySet()) {
+            if (entry.getValue() == OrderStatus.PENDING) {
+                pendingIds.add(entry.getKey());
+            }
+        }
+
+        if (!pendingIds.isEmpty()) {
+            int updated = orderRepository.rejectPendingOrders(pendingIds, rejectionReason);
+            logger.info("Bulk rejection updated {} of {} pending orders", updated, pendingIds.size());
+
+            // The bulk UPDATE bypasses entity listeners, so report the status changes explicitly
+            for (Long id : pendingIds) {
+                Object[] row = lockedRows.get(id);
+                if (row[2] != null) {
+                    Integer orgId = ((Number) row[2]).intValue();
+                    BigDecimal amount = row[3] != null ? new BigDecimal(row[3].toString()) : null;
+                    eventPublisher.publishEvent(new OrderChangeEvent(id, null, orgId, OrderStatus.PENDING, amount,
+                            orgId, OrderStatus.REJECTED, amount));
+                }
+            }
+        }
+
+        List<BulkOrderActionDTO.Result> results = new ArrayList<>(orderIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long orderId : orderIds) {
+            if (orderId == null) {
+                results.add(new BulkOrderActionDTO.Result(null, BulkOrderActionDTO.Result.INVALID, "Order ID is required"));
+            } else if (!seen.add(orderId)) {
+                results.add(new BulkOrderActionDTO.Result(orderId, BulkOrderActionDTO.Result.INVALID, "Duplicate order ID in request"));
+            } else if (!statuses.containsKey(orderId)) {
+                results.add(new BulkOrderActionDTO.Result(orderId, BulkOrderActionDTO.Result.NOT_FOUND, "Order not found"));
+            } else if (statuses.get(orderId) != OrderStatus.PENDING) {
+                results.add(new BulkOrderActionDTO.Result(orderId, BulkOrderActionDTO.Result.NOT_PENDING,
+                        "Only pending orders can be rejected (current status: " + statuses.get(orderId).getLabel() + ")"));
+            } else {
+                results.add(new BulkOrderActionDTO.Result(orderId, BulkOrderActionDTO.Result.REJECTED, "Order rejected"));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Validate the approval details for one order, returning an error message or null
+     */
+    private String validateApproval(BulkOrderActionDTO.ApprovalItem approval) {
+        if (approval.getOrderId() == null) {
+            return "Order ID is required";
+        }
+        if (approval.getPrnNo() == null || approval.getPrnNo().trim().isEmpty()) {
+            return "PRN Number is required";
+        }
+        if (approval.getBatchSizeStrips() == null || approval.getBatchSizeStrips() <= 0) {
+            return "Valid Batch Size (Strips) is required";
+        }
+        if (approval.getBatchSizeTabs() == null || approval.getBatchSizeTabs() <= 0) {
+            return "Valid Batch Size (Tabs) is required";
+        }
+        if (approval.getSizeCode() == null || approval.getSizeCode().trim().isEmpty()) {
+            return "Size Code is required";
+        }
+        return null;
+    }
+
+    /**
+     * Copy approval details onto a managed order and move it to Processing
+     */
+    private void applyApproval(Order order, BulkOrderActionDTO.ApprovalItem approval) {
+        order.setPrnNo(approval.getPrnNo());
+        order.setBatchSizeStrips(approval.getBatchSizeStrips());
+        order.setBatchSizeTabs(approval.getBatchSizeTabs());
+        order.setSizeCode(approval.getSizeCode());
+
+        if (approval.getPvcColor() != null) {
+            order.setPvcColor(approval.getPvcColor());
+        }
+        if (approval.getPackingSize() != null) {
+            order.setPackingSize(approval.getPackingSize());
+        }
+        if (approval.getRate() != null) {
+            order.setRate(approval.getRate());
+        }
+        if (approval.getRemarks() != null) {
+            order.setRemarks(approval.getRemarks());
+        }
+
+        order.transitionTo(OrderStatus.PROCESSING);
+
+        // Default to 15 days from now, same as single approval
+        order.setExpectedDelivery(approval.getExpectedDelivery() != null
+                ? approval.getExpectedDelivery()
+                : LocalDateTime.now().plusDays(15));
+    }
+
+    private long countOutcome(List<BulkOrderActionDTO.Result> results, String outcome) {
+        return results.stream().filter(result -> outcome.equals(result.getOutcome())).count();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.OrderRepository;
+import com.cms.cms.config.RedisCircuitBreaker;
+import com.cms.cms.config.RedisPipelineExecutor;
+import com.cms.cms.config.SingleFlightCacheLoader;
+import com.cms.cms.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live per-organization order counters kept in a Redis hash (org:stats:{orgId}).
+ * Every committed order change adjusts the counters with HINCRBY (only if the hash exists;
+ * a missing one is rebuilt from SQL on the next read), so the organization dashboard is a
+ * single HGETALL. A periodic job rebuilds all hashes from SQL to correct
+ * any drift, e.g. from updates lost while Redis was unavailable or overwritten by a rebuild
+ * that was running when they arrived.
+ * <p>
+ * Fields: "total" (order count), "amount" (sum of total amounts in minor units) and
+ * "status:{status}" (order count per lower-cased status).
+ */
+@Service
+public class OrgOrderStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(OrgOrderStatsService.class);
+
+    static final String KEY_PREFIX = "org:stats:";
+    private static final String TOTAL = "total";
+    private static final String AMOUNT = "amount";
+    private static final String STATUS_PREFIX = "status:";
+    private static final String LOCK_KEY = "lock:org-stats:reconcile";
+    private static final long LOCK_LEASE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    // HINCRBY each field/delta pair in ARGV, but only when the hash already exists
+    private static final RedisScript<String> INCREMENT_IF_EXISTS = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return '0' end " +
+                    "for i = 1, #ARGV, 2 do redis.call('hincrby', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+                    "return '1'",
+            String.class);
+    private static final StringRedisSerializer STRING_SERIALIZER = new StringRedisSerializer();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    // Organizations whose counter update failed; rebuilt from SQL once Redis is reachable
+    private final Set<Integer> dirtyOrgs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Apply a committed order change to the counters
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        Map<Integer, Map<String, Long>> deltas = new HashMap<>();
+        if (event.hasOldState()) {
+            addDelta(deltas, event.oldOrgId(), event.oldStatus(), event.oldTotalAmount(), -1);
+        }
+        if (event.hasNewState()) {
+            addDelta(deltas, event.newOrgId(), event.newStatus(), event.newTotalAmount(), 1);
+        }
+
+        boolean applied = circuitBreaker.call(() -> {
+            deltas.forEach(this::applyDelta);
+            return true;
+        }, () -> false);
+
+        if (!applied) {
+            dirtyOrgs.addAll(deltas.keySet());
+        }
+    }
+
+    /**
+     * Dashboard statistics for an organization
+     */
+    public Map<String, Object> getStats(Integer orgId) {
+        Map<Object, Object> counters = circuitBreaker.call(
+                () -> redisTemplate.opsForHash().entries(KEY_PREFIX + orgId), () -> null);
+
+        if (counters == null) {
+            // Redis unavailable: a single grouped query is still far cheaper than loading every order
+            counters = new HashMap<>(toCounters(orderRepository.aggregateByStatusForOrg(orgId)));
+        } else if (counters.isEmpty()) {
+            counters = new HashMap<>(rebuild(orgId));
+        }
+
+        long pending = counter(counters, "pending") + counter(counters, "processing");
+        long completed = counter(counters, "completed") + counter(counters, "delivered");
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalOrders", number(counters.get(TOTAL)));
+        stats.put("pendingOrders", pending);
+        stats.put("completedOrders", completed);
+        stats.put("totalAmount", BigDecimal.valueOf(number(counters.get(AMOUNT)), 2));
+        return stats;
+    }
+
+    /**
+     * Rebuild one organization's counters from SQL
+     */
+    public Map<String, Long> rebuild(Integer orgId) {
+        Map<String, Long> counters = toCounters(orderRepository.aggregateByStatusForOrg(orgId));
+        circuitBreaker.run(() -> swapIn(orgId, counters));
+        return counters;
+    }
+
+    /**
+     * Rebuild every organization's counters from SQL, on one node at a time
+     */
+    @Scheduled(fixedDelayString = "${app.org-stats.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.org-stats.reconcile-initial-delay-ms:60000}")
+    public void reconcileAll() {
+        if (circuitBreaker.isOpen()) {
+            return;
+        }
+
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, LOCK_LEASE_MS, TimeUnit.MILLISECONDS);
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not acquire org stats reconciliation lease: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+            Map<Integer, List<Object[]>> rowsByOrg = new HashMap<>();
+            for (Object[] row : orderRepository.aggregateByOrgAndStatus()) {
+                rowsByOrg.computeIfAbsent((Integer) row[0], orgId -> new ArrayList<>()).add(row);
+            }
+
+            dirtyOrgs.clear();
+            for (Map.Entry<Integer, List<Object[]>> entry : rowsByOrg.entrySet()) {
+                swapIn(entry.getKey(), toCounters(entry.getValue()));
+            }
+            logger.info("Reconciled order counters for {} organizations in {} ms",
+                    rowsByOrg.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Order counter reconciliation failed", e);
+        } finally {
+            circuitBreaker.run(() -> redisTemplate.execute(RELEASE_LOCK, List.of(LOCK_KEY), token));
+        }
+    }
+
+    /**
+     * Rebuild organizations whose counter updates were lost, once Redis is reachable
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void rebuildDirtyOrgs() {
+        if (dirtyOrgs.isEmpty() || circuitBreaker.isOpen()) {
+            return;
+        }
+        for (Integer orgId : Set.copyOf(dirtyOrgs)) {
+            try {
+                swapIn(orgId, toCounters(orderRepository.aggregateByStatusForOrg(orgId)));
+                dirtyOrgs.remove(orgId);
+            } catch (Exception e) {
+                logger.warn("Could not rebuild order counters for organization {}: {}", orgId, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add one order change to an organization's hash with HINCRBY. A missing hash is left missing
+     * so the next read rebuilds it, rather than starting from a partial count.
+     */
+    private void applyDelta(Integer orgId, Map<String, Long> fields) {
+        List<Object> args = new ArrayList<>();
+        fields.forEach((field, delta) -> {
+            if (delta != 0) {
+                args.add(field);
+                args.add(String.valueOf(delta));
+            }
+        });
+        if (!args.isEmpty()) {
+            redisTemplate.execute(INCREMENT_IF_EXISTS, STRING_SERIALIZER, STRING_SERIALIZER,
+                    List.of(KEY_PREFIX + orgId), args.toArray());
+        }
+    }
+
+    /**
+     * Write the counters under a temporary key and RENAME it over the live hash.
+     * The counters are a SQL snapshot, so a delta applied to the live hash between that query and
+     * the RENAME is overwritten. The drift is bounded by the orders changed during one rebuild
+     * and does not accumulate: the next rebuild or hourly reconcile starts from SQL again.
+     */
+    private void swapIn(Integer orgId, Map<String, Long> counters) {
+        String key = KEY_PREFIX + orgId;
+        String buildKey = SingleFlightCacheLoader.rebuildKey(key);
+        redisPipelineExecutor.pipeline(operations -> {
+            operations.opsForHash().putAll(buildKey, counters);
+            operations.rename(buildKey, key);
+        });
+    }
+
+    private Map<String, Long> toCounters(List<Object[]> rows) {
+        Map<String, Long> counters = new HashMap<>();
+        counters.put(TOTAL, 0L);
+        counters.put(AMOUNT, 0L);
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            counters.merge(TOTAL, count, Long::sum);
+            counters.merge(AMOUNT, toMinorUnits((BigDecimal) row[3]), Long::sum);
+            counters.merge(statusField((OrderStatus) row[1]), count, Long::sum);
+        }
+        return counters;
+    }
+
+    private void addDelta(Map<Integer, Map<String, Long>> deltas, Integer orgId, OrderStatus status,
+                          BigDecimal amount, int sign) {
+        Map<String, Long> fields = deltas.computeIfAbsent(orgId, id -> new HashMap<>());
+        fields.merge(TOTAL, (long) sign, Long::sum);
+        fields.merge(AMOUNT, sign * toMinorUnits(amount), Long::sum);
+        fields.merge(statusField(status), (long) sign, Long::sum);
+    }
+
+    private static String statusField(OrderStatus status) {
+        return STATUS_PREFIX + (status != null ? status.name().toLowerCase(Locale.ROOT) : "unknown");
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static long counter(Map<Object, Object> counters, String status) {
+        return number(counters.get(STATUS_PREFIX + status));
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
@@ -38,6 +38,9 @@ public class PasswordResetService {
     @Autowired
     private JavaMailSender emailSender;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
     @Value("${app.frontend.url:https://localhost:3000}")
     private String frontendUrl;
 
@@ -178,6 +181,7 @@ public class PasswordResetService {
             }
 
             User user = userOpt.get();
+            invalidateExistingTokens(userType, user.getUsername());
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
 
@@ -189,6 +193,7 @@ public class PasswordResetService {
             }
 
             NewOrg org = orgOpt.get();
+            invalidateExistingTokens(userType, org.getWebsiteUsername());
             org.setWebsitePassword(passwordEncoder.encode(newPassword));
             organizationRepository.save(org);
         } else {
@@ -229,4 +234,17 @@ public class PasswordResetService {
             logger.error("Failed to send password reset email to {}: {}", email, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Sign the user out of every session before the password changes. If that fails the reset
+     * fails too, leaving the old password and the reset token in place so the user can retry.
+     */
+    private void invalidateExistingTokens(String userType, String username) {
+        try {
+            tokenVersionService.bumpVersion(userType, username);
+        } catch (Exception e) {
+            logger.error("Failed to invalidate existing tokens for {}: {}", username, e.getMessage());
+            throw new IllegalStateException("Could not sign out existing sessions, please retry", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cms.cms.service;
+
+import com.cms.cms.dto.PendingOrderQueueDTO;
+import com.cms.cms.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pending approval queue, newest first, read with keyset pagination.
+ * Each page seeks directly to its position in idx_orders_pending_placed_at using the
+ * (placedAt, id) of the last row of the previous page, so the cost of a page does not depend
+ * on how deep into the backlog it is. Only the columns shown in the list are selected.
+ */
+@Service
+public class PendingOrderQueueService {
+    private static final Logger logger = LoggerFactory.getLogger(PendingOrderQueueService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get one page of pending orders, starting after the given cursor (null for the first page)
+     */
+    @Transactional(readOnly = true)
+    public PendingOrderQueueDTO.Page getPage(PendingOrderQueueDTO.Filter filter, String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.getFromDate() != null && filter.getToDate() != null && filter.getFromDate().isAfter(filter.getToDate())) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+
+        // Only the predicates actually in use are added, so every query can use the partial index
+        StringBuilder jpql = new StringBuilder("SELECT new com.cms.cms.dto.PendingOrderQueueDTO$Item(" +
+                "o.id, o.orderId, o.orgId, org.organizationName, o.productName, o.totalAmount, o.placedAt) " +
+                "FROM Order o LEFT JOIN NewOrg org ON org.id = o.orgId " +
+                "WHERE o.status = :status");
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", OrderStatus.PENDING);
+
+        if (filter.getOrgId() != null) {
+            jpql.append(" AND o.orgId = :orgId");
+            params.put("orgId", filter.getOrgId());
+        }
+        if (filter.getFromDate() != null) {
+            jpql.append(" AND o.placedAt >= :fromDate");
+            params.put("fromDate", filter.getFromDate().atStartOfDay());
+        }
+        if (filter.getToDate() != null) {
+            jpql.append(" AND o.placedAt < :toDate");
+            params.put("toDate", filter.getToDate().plusDays(1).atStartOfDay());
+        }
+        if (filter.getProduct() != null && !filter.getProduct().isBlank()) {
+            jpql.append(" AND LOWER(o.productName) LIKE :product ESCAPE '\\'");
+            params.put("product", "%" + escapeLike(filter.getProduct().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decodeCursor(cursor);
+            // Rows without placed_at sort last, after every dated row
+            if (after.placedAt() != null) {
+                jpql.append(" AND (o.placedAt < :cursorAt OR o.placedAt IS NULL" +
+                        " OR (o.placedAt = :cursorAt AND o.id < :cursorId))");
+                params.put("cursorAt", after.placedAt());
+            } else {
+                jpql.append(" AND o.placedAt IS NULL AND o.id < :cursorId");
+            }
+            params.put("cursorId", after.id());
+        }
+        jpql.append(" ORDER BY o.placedAt DESC NULLS LAST, o.id DESC");
+
+        TypedQuery<PendingOrderQueueDTO.Item> query =
+                entityManager.createQuery(jpql.toString(), PendingOrderQueueDTO.Item.class);
+        params.forEach(query::setParameter);
+        // One extra row tells us whether there is a next page without a count query
+        query.setMaxResults(size + 1);
+
+        List<PendingOrderQueueDTO.Item> items = new ArrayList<>(query.getResultList());
+        boolean hasMore = items.size() > size;
+        if (hasMore) {
+            items.remove(size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PendingOrderQueueDTO.Item last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(new Position(last.getPlacedAt(), last.getId()));
+        }
+        logger.debug("Loaded {} pending orders (more: {})", items.size(), hasMore);
+        return new PendingOrderQueueDTO.Page(items, nextCursor, hasMore);
+    }
+
+    private record Position(LocalDateTime placedAt, Long id) {
+    }
+
+    // Opaque to clients: base64url of "placedAt|id", with an empty placedAt for undated rows
+    private static String encodeCursor(Position position) {
+        String raw = (position.placedAt() != null ? position.placedAt().toString() : "") + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime placedAt = separator == 0 ? null : LocalDateTime.parse(raw.substring(0, separator));
+            return new Position(placedAt, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package com.cms.cms.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Products were created or changed, or an organization's product assignments changed.
+ * Either side may be empty.
+ */
+public record ProductCatalogChangeEvent(Collection<Long> productIds, Long orgId) {
+
+    public static ProductCatalogChangeEvent productsChanged(Collection<Long> productIds) {
+        return new ProductCatalogChangeEvent(productIds, null);
+    }
+
+    public static ProductCatalogChangeEvent assignmentsChanged(Long orgId) {
+        return new ProductCatalogChangeEvent(List.of(), orgId);
+    }
+}
@@ -0,0 +1,362 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.ProductRepository;
+import com.cms.cms.config.RedisCircuitBreaker;
+import com.cms.cms.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-node n-gram index over product name and type for substring search.
+ * Every product gets a slot; each 1-, 2- and 3-gram of its lower-cased name and type maps to
+ * the bitmap of slots containing it. A search intersects the bitmaps of the term's grams,
+ * removes the organization's assigned products (a bitmap per organization, loaded on first use)
+ * and checks the few remaining candidates, so a type-ahead keystroke needs no database or
+ * Redis round trip.
+ * <p>
+ * Product writes and assignment changes are applied after commit and announced to the other
+ * nodes over Redis pub/sub; a periodic rebuild picks up anything missed.
+ */
+@Component
+public class ProductSearchIndex implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    static final String CHANNEL = "product-index";
+    private static final int MAX_GRAM = 3;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    // Catalog reads also run from after-commit callbacks, so they always get their own transaction
+    private TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final List<IndexedProduct> slots = new ArrayList<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final BitSet available = new BitSet();
+    private boolean ready;
+
+    // Slots of the products assigned to each organization
+    private final Map<Long, BitSet> assignedByOrg = new ConcurrentHashMap<>();
+    // Bumped before every invalidation of assignedByOrg, so a load that overlaps one is not cached
+    private final AtomicLong assignmentGeneration = new AtomicLong();
+
+    private record IndexedProduct(Product product, String name, String type) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild from the catalog in case a change notification was missed
+     */
+    @Scheduled(fixedDelayString = "${app.product-index.rebuild-interval-ms:900000}",
+            initialDelayString = "${app.product-index.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            List<Product> products = transactionTemplate.execute(status ->
+                    productRepository.findByIsAvailableTrue().stream().map(ProductSearchIndex::copyOf).toList());
+
+            lock.writeLock().lock();
+            try {
+                // Products keep their slots, so organization bitmaps stay meaningful
+                Set<Long> stale = new HashSet<>(slotsById.keySet());
+                for (Product product : products) {
+                    stale.remove(product.getId());
+                    put(product);
+                }
+                stale.forEach(this::remove);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Assignment changes could have been missed as well
+            assignmentGeneration.incrementAndGet();
+            assignedByOrg.clear();
+            logger.info("Product search index built with {} products in {} ms",
+                    products.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Failed to build product search index, searches fall back to the database", e);
+        }
+    }
+
+    /**
+     * Available products whose name or type contains the term, ordered by name, or
+     * empty if the index is not built yet. Products assigned to orgId are left out.
+     */
+    public Optional<List<Product>> search(String term, Long orgId, int limit) {
+        String needle = term.trim().toLowerCase(Locale.ROOT);
+        BitSet excluded = orgId != null ? assignedSlots(orgId) : null;
+
+        List<IndexedProduct> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+
+            BitSet candidates = candidates(needle);
+            if (excluded != null) {
+                candidates.andNot(excluded);
+            }
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                IndexedProduct entry = slots.get(slot);
+                // Grams only narrow the candidates down; confirm the actual substring match
+                if (entry.name().contains(needle) || entry.type().contains(needle)) {
+                    matches.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparing((IndexedProduct entry) -> !entry.name().startsWith(needle))
+                .thenComparing(entry -> entry.product().getName()));
+        return Optional.of(matches.stream().limit(limit).map(entry -> copyOf(entry.product())).toList());
+    }
+
+    /**
+     * Apply a committed catalog change locally and tell the other nodes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChange(ProductCatalogChangeEvent event) {
+        apply(event.productIds(), event.orgId());
+
+        List<String> messages = new ArrayList<>();
+        event.productIds().forEach(id -> messages.add("product|" + id));
+        if (event.orgId() != null) {
+            messages.add("org|" + event.orgId());
+        }
+        circuitBreaker.run(() -> messages.forEach(message -> redisTemplate.convertAndSend(CHANNEL, message)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            String[] parts = String.valueOf(payload).split("\\|");
+            Long id = Long.parseLong(parts[1]);
+            if ("product".equals(parts[0])) {
+                apply(List.of(id), null);
+            } else if ("org".equals(parts[0])) {
+                apply(List.of(), id);
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed product index message: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Collection<Long> productIds, Long orgId) {
+        if (!productIds.isEmpty()) {
+            List<Product> products = transactionTemplate.execute(status ->
+                    productRepository.findAllById(productIds).stream().map(ProductSearchIndex::copyOf).toList());
+
+            lock.writeLock().lock();
+            try {
+                Set<Long> missing = new HashSet<>(productIds);
+                for (Product product : products) {
+                    missing.remove(product.getId());
+                    put(product);
+                }
+                missing.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (orgId != null) {
+            assignmentGeneration.incrementAndGet();
+            assignedByOrg.remove(orgId);
+        }
+    }
+
+    // Caller holds the write lock
+    private void put(Product product) {
+        Integer slot = slotsById.get(product.getId());
+        if (slot != null) {
+            unindex(slot);
+        } else {
+            slot = slots.size();
+            slots.add(null);
+            slotsById.put(product.getId(), slot);
+        }
+
+        IndexedProduct entry = new IndexedProduct(product, lower(product.getName()), lower(product.getType()));
+        slots.set(slot, entry);
+        if (Boolean.TRUE.equals(product.getIsAvailable())) {
+            available.set(slot);
+            for (String gram : grams(entry)) {
+                postings.computeIfAbsent(gram, key -> new BitSet()).set(slot);
+            }
+        }
+    }
+
+    // Caller holds the write lock; the slot stays reserved so organization bitmaps stay valid
+    private void remove(Long productId) {
+        Integer slot = slotsById.get(productId);
+        if (slot != null) {
+            unindex(slot);
+        }
+    }
+
+    private void unindex(int slot) {
+        IndexedProduct previous = slots.get(slot);
+        if (previous != null) {
+            for (String gram : grams(previous)) {
+                BitSet bits = postings.get(gram);
+                if (bits != null) {
+                    bits.clear(slot);
+                    if (bits.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+        available.clear(slot);
+    }
+
+    // Caller holds the read lock
+    private BitSet candidates(String needle) {
+        if (needle.isEmpty()) {
+            return (BitSet) available.clone();
+        }
+        BitSet result = null;
+        int gramLength = Math.min(needle.length(), MAX_GRAM);
+        for (int i = 0; i + gramLength <= needle.length(); i++) {
+            BitSet bits = postings.get(needle.substring(i, i + gramLength));
+            if (bits == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) bits.clone();
+            } else {
+                result.and(bits);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private BitSet assignedSlots(Long orgId) {
+        BitSet cached = assignedByOrg.get(orgId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = assignmentGeneration.get();
+        List<Long> productIds = productRepository.findProductIdsByOrganizationId(orgId);
+        BitSet bits = new BitSet();
+        lock.readLock().lock();
+        try {
+            for (Long productId : productIds) {
+                Integer slot = slotsById.get(productId);
+                if (slot != null) {
+                    bits.set(slot);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Only cache the result if nothing was invalidated while it loaded; the check runs under
+        // the map's lock for the key, so a concurrent remove lands either before it or after the put
+        assignedByOrg.compute(orgId, (key, current) ->
+                assignmentGeneration.get() == generation ? bits : current);
+        return bits;
+    }
+
+    private static Set<String> grams(IndexedProduct entry) {
+        Set<String> grams = new HashSet<>();
+        addGrams(entry.name(), grams);
+        addGrams(entry.type(), grams);
+        return grams;
+    }
+
+    private static void addGrams(String value, Set<String> grams) {
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= value.length(); i++) {
+                grams.add(value.substring(i, i + length));
+            }
+        }
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Detached copy with its collections loaded, safe to keep and serialize outside a session.
+     * Organizations are left out; pickers only need the product itself.
+     */
+    private static Product copyOf(Product source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setType(source.getType());
+        product.setDescription(source.getDescription());
+        product.setPrice(source.getPrice());
+        product.setIsAvailable(source.getIsAvailable());
+        product.setUnitTypes(source.getUnitTypes() != null ? new ArrayList<>(source.getUnitTypes()) : null);
+        product.setAvailableBatches(source.getAvailableBatches() != null ? new ArrayList<>(source.getAvailableBatches()) : null);
+        product.setCreatedAt(source.getCreatedAt());
+        product.setUpdatedAt(source.getUpdatedAt());
+        return product;
+    }
+}
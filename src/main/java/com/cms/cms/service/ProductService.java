@@ -24,6 +24,12 @@ public interface ProductService {
      */
     List<Product> searchProductsNotInOrganization(String searchTerm, Long orgId);
 
+    /**
+     * Type-ahead search over available products by name or type, optionally leaving out
+     * the products already assigned to an organization
+     */
+    List<Product> searchAvailableProducts(String searchTerm, Long excludeOrgId, int limit);
+
     /**
      * Add a product to an organization
      */
@@ -34,6 +40,20 @@ public interface ProductService {
      */
     void removeProductFromOrganization(Long orgId, Long productId);
 
+    /**
+     * Add many products to an organization in a single statement
+     *
+     * @return number of products newly assigned
+     */
+    int addProductsToOrganization(Long orgId, List<Long> productIds);
+
+    /**
+     * Remove many products from an organization in a single statement
+     *
+     * @return number of products actually removed
+     */
+    int removeProductsFromOrganization(Long orgId, List<Long> productIds);
+
     /**
      * Get a product by ID
      */
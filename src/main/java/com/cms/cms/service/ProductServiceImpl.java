@@ -1,5 +1,7 @@
 package com.cms.cms.service;
 
+import com.cms.cms.config.ResilientRedisCache;
+import com.cms.cms.config.SingleFlightCacheLoader;
 import com.cms.cms.model.Product;
 import com.cms.cms.model.NewOrg;
 import com.cms.cms.Repository.ProductRepository;
@@ -7,23 +9,27 @@ import com.cms.cms.Repository.NewOrgRepository;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,6 +45,7 @@ public class ProductServiceImpl implements ProductService {
     private static final String ORG_PRODUCTS_KEY = "products:org:";
     private static final String PRODUCTS_NOT_IN_ORG_KEY = "products:not_in_org:";
     private static final long CACHE_TTL = 3600; // 1 hour in seconds
+    private static final int MAX_BULK_PRODUCTS = 1000;
 
     @Autowired
     private ProductRepository productRepository;
@@ -49,34 +56,35 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private ResilientRedisCache redisCache;
+
+    @Autowired
+    private SingleFlightCacheLoader cacheLoader;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
-    @Cacheable(value = "products", key = "'allAvailable'")
     public List<Product> getAllAvailableProducts() {
         logger.info("Fetching all available products");
 
-        // Try to get from Redis first
-        String cacheKey = ALL_AVAILABLE_PRODUCTS_KEY;
-        Object cachedResult = redisTemplate.opsForValue().get(cacheKey);
+        // Concurrent misses share one catalog query, and the entry is refreshed ahead of expiry
+        Object result = cacheLoader.get(ALL_AVAILABLE_PRODUCTS_KEY, CACHE_TTL, TimeUnit.SECONDS,
+                productRepository::findByIsAvailableTrue);
 
-        if (cachedResult != null) {
-            try {
-                List<Product> cachedProducts = convertToProductList(cachedResult);
-                logger.info("Retrieved {} products from Redis cache", cachedProducts.size());
-                return cachedProducts;
-            } catch (Exception e) {
-                logger.warn("Failed to convert cached products, removing corrupted cache: {}", e.getMessage());
-                redisTemplate.delete(cacheKey);
-            }
+        try {
+            List<Product> products = convertToProductList(result);
+            logger.info("Returning {} available products", products.size());
+            return products;
+        } catch (Exception e) {
+            logger.warn("Failed to convert cached products, removing corrupted cache: {}", e.getMessage());
+            redisCache.delete(ALL_AVAILABLE_PRODUCTS_KEY);
+            return productRepository.findByIsAvailableTrue();
         }
-
-        // If not in cache, fetch from database
-        List<Product> products = productRepository.findByIsAvailableTrue();
-
-        // Store in Redis with TTL
-        redisTemplate.opsForValue().set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
-        logger.info("Cached {} available products in Redis", products.size());
-
-        return products;
     }
 
     @Override
@@ -84,7 +92,7 @@ public class ProductServiceImpl implements ProductService {
         logger.info("Fetching products for organization with id: {}", orgId);
 
         String cacheKey = ORG_PRODUCTS_KEY + orgId;
-        Object cachedResult = redisTemplate.opsForValue().get(cacheKey);
+        Object cachedResult = redisCache.get(cacheKey);
 
         if (cachedResult != null) {
             try {
@@ -96,7 +104,7 @@ public class ProductServiceImpl implements ProductService {
                 return cachedProducts;
             } catch (Exception e) {
                 logger.warn("Failed to convert cached products, removing corrupted cache: {}", e.getMessage());
-                redisTemplate.delete(cacheKey); // Remove corrupted cache
+                redisCache.delete(cacheKey); // Remove corrupted cache
             }
         }
 
@@ -105,7 +113,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Cache the results
         try {
-            redisTemplate.opsForValue().set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
+            redisCache.set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
             logger.info("Cached {} products for org {} in Redis", products.size(), orgId);
         } catch (Exception e) {
             logger.warn("Failed to cache products: {}", e.getMessage());
@@ -119,7 +127,7 @@ public class ProductServiceImpl implements ProductService {
         logger.info("Fetching products not assigned to organization with id: {}", orgId);
 
         String cacheKey = PRODUCTS_NOT_IN_ORG_KEY + orgId;
-        Object cachedResult = redisTemplate.opsForValue().get(cacheKey);
+        Object cachedResult = redisCache.get(cacheKey);
 
         if (cachedResult != null) {
             try {
@@ -128,12 +136,12 @@ public class ProductServiceImpl implements ProductService {
                 return cachedProducts;
             } catch (Exception e) {
                 logger.warn("Failed to convert cached products, removing corrupted cache: {}", e.getMessage());
-                redisTemplate.delete(cacheKey);
+                redisCache.delete(cacheKey);
             }
         }
 
         List<Product> products = productRepository.findProductsNotInOrganization(orgId);
-        redisTemplate.opsForValue().set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
+        redisCache.set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
         logger.info("Cached {} products not in org {} in Redis", products.size(), orgId);
 
         return products;
@@ -146,33 +154,31 @@ public class ProductServiceImpl implements ProductService {
             return getProductsNotInOrganization(orgId);
         }
 
-        // For search operations, we'll cache with search term in key
-        String cacheKey = PRODUCTS_NOT_IN_ORG_KEY + orgId + ":search:" + searchTerm.toLowerCase();
-        Object cachedResult = redisTemplate.opsForValue().get(cacheKey);
+        // Served from this node's in-memory index; the query is only used until the index is built
+        List<Product> products = productSearchIndex.search(searchTerm, orgId, Integer.MAX_VALUE)
+                .orElseGet(() -> productRepository.searchProductsNotInOrganization(searchTerm.trim(), orgId));
+        logger.info("Found {} products not in org {} matching '{}'", products.size(), orgId, searchTerm);
 
-        if (cachedResult != null) {
-            try {
-                List<Product> cachedProducts = convertToProductList(cachedResult);
-                logger.info("Retrieved search results from Redis cache");
-                return cachedProducts;
-            } catch (Exception e) {
-                logger.warn("Failed to convert cached search results, removing corrupted cache: {}", e.getMessage());
-                redisTemplate.delete(cacheKey);
-            }
-        }
+        return products;
+    }
 
-        List<Product> products = productRepository.searchProductsNotInOrganization(searchTerm, orgId);
-        redisTemplate.opsForValue().set(cacheKey, products, CACHE_TTL, TimeUnit.SECONDS);
+    @Override
+    public List<Product> searchAvailableProducts(String searchTerm, Long excludeOrgId, int limit) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return products;
+        return productSearchIndex.search(searchTerm, excludeOrgId, limit).orElseGet(() -> {
+            List<Product> products = excludeOrgId != null
+                    ? productRepository.searchProductsNotInOrganization(searchTerm.trim(), excludeOrgId)
+                    : productRepository.findByNameContainingIgnoreCaseAndIsAvailableTrue(searchTerm.trim());
+            return products.stream().limit(limit).toList();
+        });
     }
 
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "products", key = "'allAvailable'"),
-            @CacheEvict(value = "products", key = "#orgId")
-    })
+    @CacheEvict(value = "products", key = "#orgId")
     public void addProductToOrganization(Long orgId, Long productId) {
         logger.info("Adding product with id: {} to organization with id: {}", productId, orgId);
 
@@ -220,18 +226,15 @@ public class ProductServiceImpl implements ProductService {
         orgRepository.save(org);
 
         // Clear related Redis cache entries
-        clearOrganizationRelatedCache(orgId);
-        clearProductRelatedCache(productId);
+        clearAssignmentCache(orgId, List.of(productId));
+        eventPublisher.publishEvent(ProductCatalogChangeEvent.assignmentsChanged(orgId));
 
         logger.info("Product with id: {} added to organization with id: {}", productId, orgId);
     }
 
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "products", key = "'allAvailable'"),
-            @CacheEvict(value = "products", key = "#orgId")
-    })
+    @CacheEvict(value = "products", key = "#orgId")
     public void removeProductFromOrganization(Long orgId, Long productId) {
         logger.info("Removing product with id: {} from organization with id: {}", productId, orgId);
 
@@ -262,19 +265,86 @@ public class ProductServiceImpl implements ProductService {
         orgRepository.save(org);
 
         // Clear related Redis cache entries
-        clearOrganizationRelatedCache(orgId);
-        clearProductRelatedCache(productId);
+        clearAssignmentCache(orgId, List.of(productId));
+        eventPublisher.publishEvent(ProductCatalogChangeEvent.assignmentsChanged(orgId));
 
         logger.info("Product with id: {} removed from organization with id: {}", productId, orgId);
     }
 
+    @Override
+    @Transactional
+    @CacheEvict(value = "products", key = "#orgId")
+    public int addProductsToOrganization(Long orgId, List<Long> productIds) {
+        Set<Long> ids = normalizeProductIds(productIds);
+        logger.info("Bulk adding {} products to organization with id: {}", ids.size(), orgId);
+
+        if (!orgRepository.existsById(orgId)) {
+            logger.error("Organization not found with id: {}", orgId);
+            throw new EntityNotFoundException("Organization not found");
+        }
+
+        int inserted = productRepository.assignProductsToOrganization(orgId, ids);
+
+        // Invalidate once for the whole batch
+        clearAssignmentCache(orgId, ids);
+        eventPublisher.publishEvent(ProductCatalogChangeEvent.assignmentsChanged(orgId));
+
+        logger.info("Assigned {} of {} requested products to organization with id: {}", inserted, ids.size(), orgId);
+        return inserted;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = "products", key = "#orgId")
+    public int removeProductsFromOrganization(Long orgId, List<Long> productIds) {
+        Set<Long> ids = normalizeProductIds(productIds);
+        logger.info("Bulk removing {} products from organization with id: {}", ids.size(), orgId);
+
+        if (!orgRepository.existsById(orgId)) {
+            logger.error("Organization not found with id: {}", orgId);
+            throw new EntityNotFoundException("Organization not found");
+        }
+
+        int removed = productRepository.removeProductsFromOrganization(orgId, ids);
+
+        clearAssignmentCache(orgId, ids);
+        eventPublisher.publishEvent(ProductCatalogChangeEvent.assignmentsChanged(orgId));
+
+        logger.info("Removed {} of {} requested products from organization with id: {}", removed, ids.size(), orgId);
+        return removed;
+    }
+
+    /**
+     * De-duplicate and validate a bulk product ID list
+     */
+    private Set<Long> normalizeProductIds(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one product ID is required");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : productIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one product ID is required");
+        }
+        if (ids.size() > MAX_BULK_PRODUCTS) {
+            throw new IllegalArgumentException("A maximum of " + MAX_BULK_PRODUCTS + " products can be changed per request");
+        }
+        return ids;
+    }
+
     @Override
     @Cacheable(value = "products", key = "#id")
     public Product getProductById(Long id) {
         logger.info("Fetching product with id: {}", id);
 
         String cacheKey = PRODUCTS_CACHE_KEY + id;
-        Object cachedResult = redisTemplate.opsForValue().get(cacheKey);
+        Object cachedResult = redisCache.get(cacheKey);
 
         if (cachedResult != null) {
             try {
@@ -290,7 +360,7 @@ public class ProductServiceImpl implements ProductService {
                 }
             } catch (Exception e) {
                 logger.warn("Failed to convert cached product, removing corrupted cache: {}", e.getMessage());
-                redisTemplate.delete(cacheKey);
+                redisCache.delete(cacheKey);
             }
         }
 
@@ -298,7 +368,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
 
         // Cache the product
-        redisTemplate.opsForValue().set(cacheKey, product, CACHE_TTL, TimeUnit.SECONDS);
+        redisCache.set(cacheKey, product, CACHE_TTL, TimeUnit.SECONDS);
         logger.info("Cached product {} in Redis", id);
 
         return product;
@@ -319,10 +389,11 @@ public class ProductServiceImpl implements ProductService {
 
         // Clear all products cache since we added a new product
         clearAllProductsCache();
+        eventPublisher.publishEvent(ProductCatalogChangeEvent.productsChanged(List.of(savedProduct.getId())));
 
         // Cache the new product
         String cacheKey = PRODUCTS_CACHE_KEY + savedProduct.getId();
-        redisTemplate.opsForValue().set(cacheKey, savedProduct, CACHE_TTL, TimeUnit.SECONDS);
+        redisCache.set(cacheKey, savedProduct, CACHE_TTL, TimeUnit.SECONDS);
 
         logger.info("Created and cached new product with id: {}", savedProduct.getId());
         return savedProduct;
@@ -385,48 +456,32 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * Clear all organization-related cache entries
+     * Clear the organization's product lists and the affected products with a single DEL
      */
-    private void clearOrganizationRelatedCache(Long orgId) {
-        String orgProductsKey = ORG_PRODUCTS_KEY + orgId;
-        String productsNotInOrgKey = PRODUCTS_NOT_IN_ORG_KEY + orgId;
-
-        redisTemplate.delete(orgProductsKey);
-        redisTemplate.delete(productsNotInOrgKey);
-
-        // Clear search cache for this organization (pattern-based deletion)
-        String searchPattern = PRODUCTS_NOT_IN_ORG_KEY + orgId + ":search:*";
-        redisTemplate.delete(redisTemplate.keys(searchPattern));
-
-        logger.info("Cleared Redis cache for organization: {}", orgId);
-    }
-
-    /**
-     * Clear product-related cache entries
-     */
-    private void clearProductRelatedCache(Long productId) {
-        String productKey = PRODUCTS_CACHE_KEY + productId;
-        redisTemplate.delete(productKey);
+    private void clearAssignmentCache(Long orgId, Collection<Long> productIds) {
+        List<String> keys = new ArrayList<>(productIds.size() + 2);
+        keys.add(ORG_PRODUCTS_KEY + orgId);
+        keys.add(PRODUCTS_NOT_IN_ORG_KEY + orgId);
+        for (Long productId : productIds) {
+            keys.add(PRODUCTS_CACHE_KEY + productId);
+        }
+        redisCache.delete(keys);
 
-        logger.info("Cleared Redis cache for product: {}", productId);
+        logger.info("Cleared Redis cache for organization: {} and {} products", orgId, productIds.size());
     }
 
     /**
      * Clear all products cache
      */
     private void clearAllProductsCache() {
-        redisTemplate.delete(ALL_AVAILABLE_PRODUCTS_KEY);
-
-        // Clear all product-specific caches
-        String productPattern = PRODUCTS_CACHE_KEY + "*";
-        redisTemplate.delete(redisTemplate.keys(productPattern));
-
-        // Clear all organization-related caches
-        String orgPattern = ORG_PRODUCTS_KEY + "*";
-        redisTemplate.delete(redisTemplate.keys(orgPattern));
-
-        String notInOrgPattern = PRODUCTS_NOT_IN_ORG_KEY + "*";
-        redisTemplate.delete(redisTemplate.keys(notInOrgPattern));
+        redisCache.delete(ALL_AVAILABLE_PRODUCTS_KEY);
+
+        // Clear all product-specific and organization-related caches
+        redisCache.deleteLocalByPrefix(PRODUCTS_CACHE_KEY);
+        redisCache.deleteByPattern(
+                PRODUCTS_CACHE_KEY + "*",
+                ORG_PRODUCTS_KEY + "*",
+                PRODUCTS_NOT_IN_ORG_KEY + "*");
 
         logger.info("Cleared all products-related Redis cache");
     }
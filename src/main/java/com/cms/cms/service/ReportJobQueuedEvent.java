@@ -0,0 +1,7 @@
+package com.cms.cms.service;
+
+/**
+ * A report job was saved as QUEUED and can be handed to a worker once the transaction commits
+ */
+public record ReportJobQueuedEvent(Long jobId) {
+}
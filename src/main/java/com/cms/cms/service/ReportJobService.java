@@ -0,0 +1,501 @@
+package com.cms.cms.service;
+
+import com.cms.cms.Repository.ReportJobRepository;
+import com.cms.cms.config.Workload;
+import com.cms.cms.dto.ReportJobDTO;
+import com.cms.cms.model.OrderStatus;
+import com.cms.cms.model.ReportJob;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Background report jobs for admin analytics that are too heavy to compute inside a request.
+ * A submitted spec is saved as QUEUED and run after commit on a small bounded worker pool; the
+ * worker streams a grouped SQL aggregation straight into a CSV or JSON file in local report
+ * storage, so neither the result set nor the file is held in memory. Identical specs reuse the
+ * queued, running or completed job, so admins asking the same question share one computation.
+ * <p>
+ * Sales figures leave out rejected and cancelled orders. Report storage must be shared between
+ * nodes for downloads to work behind a load balancer.
+ */
+@Service
+public class ReportJobService {
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10000;
+    // Statuses are compared normalized so rows still holding legacy labels ("Rejected") count correctly
+    private static final String STATUS = "UPPER(TRIM(o.status))";
+    private static final String NOT_LOST = STATUS + " NOT IN ('REJECTED', 'CANCELLED')";
+
+    @Autowired
+    private ReportJobRepository reportJobRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.reports.storage-dir:reports}")
+    private String storageDir;
+
+    @Value("${app.reports.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.reports.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.reports.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.reports.retention-hours:24}")
+    private long retentionHours;
+
+    private Path storage;
+    private ThreadPoolTaskExecutor executor;
+    private JdbcTemplate streamingJdbcTemplate;
+    // Job bookkeeping runs from workers and after-commit callbacks, so it always gets its own transaction
+    private TransactionTemplate jobTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @PostConstruct
+    public void init() throws IOException {
+        storage = Files.createDirectories(Paths.get(storageDir).toAbsolutePath());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-");
+        // Report queries take their connections from the background pool when workload pools are on
+        executor.setTaskDecorator(Workload.BACKGROUND::wrap);
+        executor.initialize();
+
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+        streamingJdbcTemplate.setQueryTimeout((int) Math.max(1, timeoutMs / 1000));
+
+        jobTransaction = new TransactionTemplate(transactionManager);
+        jobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Postgres only honours the fetch size inside a transaction, otherwise the whole result is loaded
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queue a report, or return the existing job for the same spec if it is queued, running or
+     * completed with its result still available
+     */
+    @Transactional
+    public ReportJob submit(ReportJobDTO.Request request, String requestedBy) {
+        ReportJob job = toJob(request);
+
+        Optional<ReportJob> existing = reportJobRepository.findFirstBySpecKeyAndStatusInOrderByCreatedAtDesc(
+                job.getSpecKey(), EnumSet.of(ReportJob.Status.QUEUED, ReportJob.Status.RUNNING, ReportJob.Status.COMPLETED));
+        if (existing.isPresent() && isReusable(existing.get())) {
+            logger.info("Reusing report job {} for spec {}", existing.get().getId(), job.getSpecKey());
+            return existing.get();
+        }
+
+        job.setRequestedBy(requestedBy);
+        job.setStatus(ReportJob.Status.QUEUED);
+        ReportJob saved = reportJobRepository.save(job);
+        eventPublisher.publishEvent(new ReportJobQueuedEvent(saved.getId()));
+        logger.info("Queued report job {} ({}, {}) for {}", saved.getId(), saved.getType(), saved.getFormat(), requestedBy);
+        return saved;
+    }
+
+    public Optional<ReportJob> getJob(Long id) {
+        return reportJobRepository.findById(id);
+    }
+
+    public List<ReportJob> getRecentJobs() {
+        return reportJobRepository.findTop50ByOrderByCreatedAtDesc();
+    }
+
+    /**
+     * Location of a completed job's result file
+     */
+    public Path getResultFile(ReportJob job) {
+        if (job.getStatus() != ReportJob.Status.COMPLETED || job.getFilePath() == null) {
+            throw new IllegalStateException("Report " + job.getId() + " is " + job.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        Path file = Paths.get(job.getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new IllegalStateException("Result file of report " + job.getId() + " is not available on this server");
+        }
+        return file;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobQueued(ReportJobQueuedEvent event) {
+        dispatch(event.jobId());
+    }
+
+    /**
+     * Hand jobs queued before a restart to the workers; the claim keeps nodes from running one twice
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeQueuedJobs() {
+        try {
+            reportJobRepository.findByStatus(ReportJob.Status.QUEUED).forEach(job -> dispatch(job.getId()));
+        } catch (Exception e) {
+            logger.error("Could not resume queued report jobs", e);
+        }
+    }
+
+    /**
+     * Fail jobs that outlived the timeout (e.g. their node stopped, or they never left a lost
+     * worker queue) and drop expired result files
+     */
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime timedOut = now.minus(Duration.ofMillis(timeoutMs));
+        for (ReportJob job : reportJobRepository.findByStatusAndStartedAtBefore(ReportJob.Status.RUNNING, timedOut)) {
+            markFailed(job.getId(), "Report did not finish within " + timeoutMs / 1000 + " seconds");
+        }
+        for (ReportJob job : reportJobRepository.findByStatusAndCreatedAtBefore(ReportJob.Status.QUEUED, timedOut)) {
+            markFailed(job.getId(), "Report was not started within " + timeoutMs / 1000 + " seconds");
+        }
+
+        for (ReportJob job : reportJobRepository.findByStatusAndCompletedAtBefore(
+                ReportJob.Status.COMPLETED, now.minusHours(retentionHours))) {
+            try {
+                if (job.getFilePath() != null) {
+                    Files.deleteIfExists(Paths.get(job.getFilePath()));
+                }
+                updateJob(job.getId(), expired -> expired.setStatus(ReportJob.Status.EXPIRED));
+            } catch (IOException e) {
+                logger.warn("Could not delete result file of report job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            logger.warn("Report queue is full, rejecting report job {}", jobId);
+            markFailed(jobId, "Too many reports are being generated, please try again later");
+        }
+    }
+
+    private void run(Long jobId) {
+        Integer claimed = jobTransaction.execute(status -> reportJobRepository.claim(jobId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+
+        ReportJob job = reportJobRepository.findById(jobId).orElseThrow();
+        long startedAt = System.currentTimeMillis();
+        String extension = job.getFormat() == ReportJob.Format.CSV ? ".csv" : ".json";
+        Path file = storage.resolve("report-" + jobId + extension);
+        Path partial = storage.resolve("report-" + jobId + extension + ".part");
+
+        try {
+            List<Object> args = new ArrayList<>();
+            String sql = buildQuery(job, args);
+
+            Long rows = readOnlyTransaction.execute(status -> {
+                try (Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(Files.newOutputStream(partial), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    ResultWriter resultWriter = job.getFormat() == ReportJob.Format.CSV
+                            ? new CsvResultWriter(writer)
+                            : new JsonResultWriter(objectMapper.getFactory().createGenerator(writer));
+                    return streamingJdbcTemplate.query(sql, resultSet -> {
+                        try {
+                            ResultSetMetaData metaData = resultSet.getMetaData();
+                            resultWriter.start(metaData);
+                            long count = 0;
+                            while (resultSet.next()) {
+                                resultWriter.write(resultSet, metaData);
+                                count++;
+                            }
+                            resultWriter.finish();
+                            return count;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, args.toArray());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            updateJob(jobId, completed -> {
+                completed.setStatus(ReportJob.Status.COMPLETED);
+                completed.setCompletedAt(LocalDateTime.now());
+                completed.setRowCount(rows);
+                completed.setFilePath(file.toString());
+            });
+            logger.info("Report job {} ({}) finished with {} rows in {} ms",
+                    jobId, job.getType(), rows, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Report job {} ({}) failed", jobId, job.getType(), e);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Leftover partial files are harmless and overwritten by a retry
+            }
+            markFailed(jobId, e.getMessage());
+        }
+    }
+
+    // Grouped aggregations only: the database does the heavy lifting and returns few rows
+    private String buildQuery(ReportJob job, List<Object> args) {
+        List<String> filters = new ArrayList<>();
+        if (job.getFromDate() != null) {
+            filters.add("o.placed_at >= ?");
+            args.add(Timestamp.valueOf(job.getFromDate().atStartOfDay()));
+        }
+        if (job.getToDate() != null) {
+            filters.add("o.placed_at < ?");
+            args.add(Timestamp.valueOf(job.getToDate().plusDays(1).atStartOfDay()));
+        }
+        if (job.getOrgId() != null) {
+            filters.add("o.organization_id = ?");
+            args.add(job.getOrgId());
+        }
+
+        switch (job.getType()) {
+            case SALES_BY_ORG_MONTH:
+                filters.add(NOT_LOST);
+                return "SELECT o.organization_id AS org_id, org.org_name AS organization_name, " +
+                        "CAST(DATE_TRUNC('month', o.placed_at) AS DATE) AS order_month, " +
+                        "COUNT(*) AS orders, COALESCE(SUM(o.total_amount), 0) AS total_amount " +
+                        "FROM orders o LEFT JOIN organizations org ON org.id = o.organization_id" +
+                        where(filters) +
+                        " GROUP BY o.organization_id, org.org_name, CAST(DATE_TRUNC('month', o.placed_at) AS DATE)" +
+                        " ORDER BY order_month, org_id";
+            case TOP_PRODUCTS:
+                filters.add(NOT_LOST);
+                args.add(job.getResultLimit());
+                return "SELECT o.product_name, o.brand, COUNT(*) AS orders, " +
+                        "COALESCE(SUM(o.quantity), 0) AS quantity, COALESCE(SUM(o.total_amount), 0) AS revenue " +
+                        "FROM orders o" +
+                        where(filters) +
+                        " GROUP BY o.product_name, o.brand ORDER BY revenue DESC, o.product_name LIMIT ?";
+            case STATUS_FUNNEL:
+                StringBuilder lifecycle = new StringBuilder("CASE " + STATUS);
+                for (OrderStatus status : OrderStatus.values()) {
+                    lifecycle.append(" WHEN '").append(status.name()).append("' THEN ").append(status.ordinal());
+                }
+                lifecycle.append(" END");
+                return "SELECT " + STATUS + " AS status, COUNT(*) AS orders, COALESCE(SUM(o.total_amount), 0) AS total_amount " +
+                        "FROM orders o" +
+                        where(filters) +
+                        " GROUP BY " + STATUS + " ORDER BY MIN(" + lifecycle + ")";
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + job.getType());
+        }
+    }
+
+    private static String where(List<String> filters) {
+        return filters.isEmpty() ? "" : " WHERE " + String.join(" AND ", filters);
+    }
+
+    private ReportJob toJob(ReportJobDTO.Request request) {
+        if (request == null || request.getType() == null) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        if (request.getFromDate() != null && request.getToDate() != null
+                && request.getFromDate().isAfter(request.getToDate())) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+
+        ReportJob job = new ReportJob();
+        job.setType(request.getType());
+        job.setFormat(request.getFormat() != null ? request.getFormat() : ReportJob.Format.CSV);
+        job.setFromDate(request.getFromDate());
+        job.setToDate(request.getToDate());
+        job.setOrgId(request.getOrgId());
+        if (request.getType() == ReportJob.Type.TOP_PRODUCTS) {
+            int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
+            if (limit <= 0 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+            }
+            job.setResultLimit(limit);
+        }
+        job.setSpecKey(String.join("|", job.getType().name(), job.getFormat().name(),
+                String.valueOf(job.getFromDate()), String.valueOf(job.getToDate()),
+                String.valueOf(job.getOrgId()), String.valueOf(job.getResultLimit())));
+        return job;
+    }
+
+    // Completed results are reused while their file is kept; reports ending today are recomputed.
+    // Queued or running jobs past the timeout are presumed lost and not waited on.
+    private boolean isReusable(ReportJob job) {
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            LocalDateTime since = job.getStartedAt() != null ? job.getStartedAt() : job.getCreatedAt();
+            return since == null || since.isAfter(LocalDateTime.now().minus(Duration.ofMillis(timeoutMs)));
+        }
+        boolean openEnded = job.getToDate() == null || !job.getToDate().isBefore(job.getCompletedAt().toLocalDate());
+        return !openEnded && job.getFilePath() != null && Files.isReadable(Paths.get(job.getFilePath()));
+    }
+
+    private void markFailed(Long jobId, String message) {
+        updateJob(jobId, failed -> {
+            failed.setStatus(ReportJob.Status.FAILED);
+            failed.setCompletedAt(LocalDateTime.now());
+            failed.setErrorMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        });
+    }
+
+    private void updateJob(Long jobId, Consumer<ReportJob> change) {
+        jobTransaction.executeWithoutResult(status -> reportJobRepository.findById(jobId).ifPresent(job -> {
+            change.accept(job);
+            reportJobRepository.save(job);
+        }));
+    }
+
+    /**
+     * Writes result rows as they are read; column names come from the query's aliases
+     */
+    private interface ResultWriter {
+        void start(ResultSetMetaData metaData) throws SQLException, IOException;
+
+        void write(ResultSet resultSet, ResultSetMetaData metaData) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvResultWriter implements ResultWriter {
+        private final Writer writer;
+
+        CsvResultWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                if (column > 1) writer.write(',');
+                writer.write(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet resultSet, ResultSetMetaData metaData) throws SQLException, IOException {
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                if (column > 1) writer.write(',');
+                Object value = resultSet.getObject(column);
+                if (value != null) {
+                    writer.write(escapeCsv(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escapeCsv(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class JsonResultWriter implements ResultWriter {
+        private final JsonGenerator generator;
+
+        JsonResultWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws IOException {
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void write(ResultSet resultSet, ResultSetMetaData metaData) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                generator.writeFieldName(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT));
+                Object value = resultSet.getObject(column);
+                if (value instanceof java.sql.Date date) {
+                    value = date.toLocalDate();
+                } else if (value instanceof Timestamp timestamp) {
+                    value = timestamp.toLocalDateTime();
+                }
+                generator.writeObject(value);
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.writeEndArray();
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.cms.cms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit order ID generator.
+ * Layout: 41 bits of milliseconds since a custom epoch, 10 bits of node ID and a 12 bit
+ * per-millisecond sequence, so each node can issue 4096 IDs per millisecond without
+ * talking to the database or to other nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.order-id.generator", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderIdGenerator.class);
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    // How far the generator may run ahead of the wall clock before it waits for the clock to catch up
+    static final long MAX_CLOCK_DRIFT_MS = 5000;
+
+    private static final String PREFIX = "ORD-";
+    private static final char[] CROCKFORD_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final long epoch;
+    private final LongSupplier clock;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with CAS
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderIdGenerator(@Value("${app.order-id.node-id:0}") long nodeId,
+                                     @Value("${app.order-id.epoch:1704067200000}") long epoch) {
+        this(nodeId, epoch, System::currentTimeMillis);
+    }
+
+    SnowflakeOrderIdGenerator(long nodeId, long epoch, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order ID node id must be between 0 and " + MAX_NODE_ID + " but was " + nodeId);
+        }
+        if (epoch < 0 || epoch > clock.getAsLong()) {
+            throw new IllegalArgumentException("Order ID epoch must be in the past");
+        }
+        this.nodeId = nodeId;
+        this.epoch = epoch;
+        this.clock = clock;
+        logger.info("Snowflake order ID generator initialized for node {}", nodeId);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - epoch;
+            long previous = lastState.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > previousTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if (previousTimestamp - now >= MAX_CLOCK_DRIFT_MS) {
+                // The clock jumped back too far (or the sequence has been borrowing ahead for too long)
+                waitForClock(previousTimestamp - now);
+                continue;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                // Same millisecond, or the clock stepped back a little: keep counting on the last timestamp
+                next = previous + 1;
+            } else {
+                // Sequence exhausted: borrow the next millisecond rather than blocking
+                next = (previousTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (lastState.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    @Override
+    public String nextOrderId() {
+        return encode(nextId());
+    }
+
+    /**
+     * Render an ID as "ORD-" plus 13 Crockford base32 characters.
+     * The fixed width keeps the text form sorting in the same order as the numeric form.
+     */
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        long value = id;
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = CROCKFORD_ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private void waitForClock(long driftMs) {
+        logger.warn("Clock is {} ms behind the last issued order ID, waiting for it to catch up", driftMs);
+        try {
+            Thread.sleep(Math.min(driftMs, 100));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for clock to catch up", e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.cms.cms.service;
+
+import com.cms.cms.config.RedisCircuitBreaker;
+import com.cms.cms.config.RedisPipelineExecutor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token revocation keyed by token id (jti).
+ * Redis holds the exact revocation list with per-key TTLs matching token expiry. Each instance
+ * keeps Bloom filters bucketed by token expiry, so the request path answers "not revoked" in
+ * constant time and only goes to Redis on a possible hit. Revocations reach other instances
+ * over pub/sub, with a periodic SCAN to pick up anything missed.
+ * The same messages also maintain an exact local snapshot of revoked ids, which answers
+ * revocation checks while the Redis circuit is open. The snapshot is capped; once it has had to
+ * turn entries away, a Bloom filter hit during an outage counts as revoked (fail closed), so a
+ * false positive signs a user out rather than a revoked token getting through.
+ */
+@Service
+public class TokenRevocationService implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    static final String KEY_PREFIX = "revoked:jti:";
+    static final String CHANNEL = "token-revocations";
+    private static final int RESYNC_BATCH_SIZE = 500;
+    private static final int MAX_LOCAL_REVOCATIONS = 100_000;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpirationInMs;
+
+    @Value("${app.jwt.revocation.expected-per-window:100000}")
+    private int expectedRevocationsPerWindow;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    // One filter per expiry window; a whole filter is dropped once every token in it has expired
+    private final Map<Long, TokenBloomFilter> filtersByWindow = new ConcurrentHashMap<>();
+    // Exact revoked ids with their expiry, used when Redis cannot confirm a filter hit
+    private final Map<String, Long> localRevocations = new ConcurrentHashMap<>();
+    // Set when the snapshot was full and dropped a revocation; cleared by a complete resync
+    private volatile boolean localRevocationsTruncated;
+    // Revocations made while Redis was unavailable, written out once it is back
+    private final Map<String, Long> pendingRevocations = new ConcurrentHashMap<>();
+    private long windowMs;
+
+    @PostConstruct
+    public void init() {
+        windowMs = Math.max(TimeUnit.MINUTES.toMillis(1), jwtExpirationInMs / 4);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        circuitBreaker.onRecovery(this::flushPendingRevocations);
+    }
+
+    /**
+     * Revoke a token until it expires
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        long remainingMs = expiresAtMillis - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            return;
+        }
+
+        addLocal(tokenId, expiresAtMillis);
+        boolean stored = circuitBreaker.call(() -> {
+            store(tokenId, expiresAtMillis);
+            return true;
+        }, () -> false);
+
+        if (stored) {
+            logger.info("Token {} revoked for {} ms", tokenId, remainingMs);
+        } else {
+            pendingRevocations.put(tokenId, expiresAtMillis);
+            logger.warn("Redis unavailable, token {} revoked locally and queued for Redis", tokenId);
+        }
+    }
+
+    private void store(String tokenId, long expiresAtMillis) {
+        long remainingMs = expiresAtMillis - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            return;
+        }
+        // Store and announce the revocation in a single round trip
+        redisPipelineExecutor.pipeline(operations -> {
+            operations.opsForValue().set(KEY_PREFIX + tokenId, expiresAtMillis, remainingMs, TimeUnit.MILLISECONDS);
+            operations.convertAndSend(CHANNEL, tokenId + "|" + expiresAtMillis);
+        });
+    }
+
+    /**
+     * Write out revocations that were only recorded locally during a Redis outage
+     */
+    private void flushPendingRevocations() {
+        for (Map.Entry<String, Long> entry : pendingRevocations.entrySet()) {
+            try {
+                store(entry.getKey(), entry.getValue());
+                pendingRevocations.remove(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                logger.warn("Could not store queued revocation of token {}: {}", entry.getKey(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check whether a token has been revoked.
+     * Tokens that were never revoked are answered locally without a Redis round trip.
+     */
+    public boolean isRevoked(String tokenId, long expiresAtMillis) {
+        TokenBloomFilter filter = filtersByWindow.get(windowOf(expiresAtMillis));
+        if (filter == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+
+        // Possible hit: confirm against Redis, which also covers Bloom false positives;
+        // without Redis the local snapshot decides, or the filter alone if the snapshot is incomplete
+        return circuitBreaker.call(
+                () -> Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + tokenId)),
+                () -> localRevocationsTruncated || localRevocations.containsKey(tokenId));
+    }
+
+    /**
+     * Revocation published by another instance
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            String[] parts = String.valueOf(payload).split("\\|");
+            addLocal(parts[0], Long.parseLong(parts[1]));
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed token revocation message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load the revocation list from Redis when the application starts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        resyncFromRedis();
+    }
+
+    /**
+     * Re-read all revocations from Redis in case pub/sub messages were missed
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.resync-interval-ms:300000}",
+            initialDelayString = "${app.jwt.revocation.resync-interval-ms:300000}")
+    public void resyncFromRedis() {
+        if (circuitBreaker.isOpen()) {
+            return;
+        }
+        int loaded = 0;
+        boolean truncatedBefore = localRevocationsTruncated;
+        localRevocationsTruncated = false;
+        try (Cursor<String> cursor = redisTemplate.scan(
+                ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(RESYNC_BATCH_SIZE).build())) {
+            List<String> keys = new ArrayList<>(RESYNC_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == RESYNC_BATCH_SIZE) {
+                    loaded += loadKeys(keys);
+                    keys.clear();
+                }
+            }
+            loaded += loadKeys(keys);
+            logger.debug("Resynced {} token revocations from Redis", loaded);
+        } catch (Exception e) {
+            localRevocationsTruncated = localRevocationsTruncated || truncatedBefore;
+            logger.warn("Could not resync token revocations from Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop filters whose expiry window has fully passed
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredWindows() {
+        long currentWindow = windowOf(System.currentTimeMillis());
+        filtersByWindow.keySet().removeIf(window -> window < currentWindow);
+
+        long now = System.currentTimeMillis();
+        localRevocations.values().removeIf(expiresAt -> expiresAt <= now);
+        pendingRevocations.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private int loadKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> expiries = redisTemplate.opsForValue().multiGet(keys);
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Object expiry = expiries != null ? expiries.get(i) : null;
+            if (expiry instanceof Number) {
+                addLocal(keys.get(i).substring(KEY_PREFIX.length()), ((Number) expiry).longValue());
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void addLocal(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        filtersByWindow
+                .computeIfAbsent(windowOf(expiresAtMillis),
+                        window -> new TokenBloomFilter(expectedRevocationsPerWindow, falsePositiveRate))
+                .put(tokenId);
+
+        if (localRevocations.size() >= MAX_LOCAL_REVOCATIONS && !localRevocations.containsKey(tokenId)) {
+            if (!localRevocationsTruncated) {
+                // Once truncated, expired entries are left to evictExpiredWindows
+                long now = System.currentTimeMillis();
+                localRevocations.values().removeIf(expiresAt -> expiresAt <= now);
+            }
+            if (localRevocations.size() >= MAX_LOCAL_REVOCATIONS) {
+                if (!localRevocationsTruncated) {
+                    logger.warn("Local revocation snapshot is full ({} entries), outage checks fall back to the filter",
+                            MAX_LOCAL_REVOCATIONS);
+                }
+                localRevocationsTruncated = true;
+                return;
+            }
+        }
+        localRevocations.put(tokenId, expiresAtMillis);
+    }
+
+    private long windowOf(long epochMillis) {
+        return epochMillis / windowMs;
+    }
+}
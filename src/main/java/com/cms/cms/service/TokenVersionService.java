@@ -0,0 +1,178 @@
+package com.cms.cms.service;
+
+import com.cms.cms.config.RedisCircuitBreaker;
+import com.cms.cms.config.RedisPipelineExecutor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token version used for "log out everywhere".
+ * Every JWT carries the user's version at issue time; bumping the version (a single INCR)
+ * invalidates all tokens issued before it. Versions are cached locally for a short time,
+ * and other instances are told to drop their cached value when a version is bumped.
+ * <p>
+ * A token issued while the version could not be read carries {@link #UNKNOWN_VERSION}; it is
+ * checked against the time of the user's last bump instead of being rejected outright.
+ */
+@Service
+public class TokenVersionService implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    static final String KEY_PREFIX = "token:version:";
+    static final String CHANNEL = "token-version-bumps";
+    private static final String BUMPED_AT_SUFFIX = ":bumped-at";
+
+    public static final long UNKNOWN_VERSION = -1;
+    private static final int MAX_CACHED_USERS = 100_000;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.jwt.version-cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    private final Map<String, CachedVersion> cache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Version to embed in a newly issued token, always read from Redis
+     */
+    public long versionForNewToken(String userType, String username) {
+        String key = key(userType, username);
+        Long version = circuitBreaker.call(() -> readVersion(key), () -> null);
+        if (version == null) {
+            CachedVersion cached = cache.get(key);
+            logger.warn("Could not read token version for {}, using {}", key, cached != null ? "cached value" : "re-check marker");
+            return cached != null ? cached.version : UNKNOWN_VERSION;
+        }
+        cacheVersion(key, version, System.currentTimeMillis());
+        return version;
+    }
+
+    /**
+     * Current version for validating a token, served from the local cache when fresh
+     */
+    public long currentVersion(String userType, String username) {
+        String key = key(userType, username);
+        long now = System.currentTimeMillis();
+
+        CachedVersion cached = cache.get(key);
+        if (cached != null && now - cached.loadedAt < cacheTtlMs) {
+            return cached.version;
+        }
+
+        Long version = circuitBreaker.call(() -> readVersion(key), () -> null);
+        if (version == null) {
+            // Keep serving the last known version rather than locking everyone out
+            return cached != null ? cached.version : 0;
+        }
+        cacheVersion(key, version, now);
+        return version;
+    }
+
+    /**
+     * Whether a token issued with {@link #UNKNOWN_VERSION} is still valid: the user has never
+     * bumped their version, or the last bump happened before the token was issued. A bump
+     * without a recorded time rejects the token.
+     */
+    public boolean acceptsUnknownVersion(String userType, String username, long issuedAtMillis) {
+        if (currentVersion(userType, username) == 0) {
+            return true;
+        }
+        String bumpedAtKey = key(userType, username) + BUMPED_AT_SUFFIX;
+        Long bumpedAt = circuitBreaker.call(() -> {
+            Object value = redisTemplate.opsForValue().get(bumpedAtKey);
+            return value instanceof Number ? ((Number) value).longValue() : null;
+        }, () -> null);
+        // Issue times have second precision, so a token from the same second as the bump is rejected
+        return bumpedAt != null && issuedAtMillis > bumpedAt;
+    }
+
+    /**
+     * Invalidate every token issued to the user so far
+     */
+    public long bumpVersion(String userType, String username) {
+        String key = key(userType, username);
+        // INCR, the bump time and the invalidation message go out in one round trip
+        long bumpedAt = System.currentTimeMillis();
+        List<Object> results = redisPipelineExecutor.pipeline(operations -> {
+            operations.opsForValue().increment(key);
+            operations.opsForValue().set(key + BUMPED_AT_SUFFIX, bumpedAt);
+            operations.convertAndSend(CHANNEL, key);
+        });
+        Object version = results.isEmpty() ? null : results.get(0);
+        long newVersion = version instanceof Number ? ((Number) version).longValue() : 0;
+
+        cacheVersion(key, newVersion, System.currentTimeMillis());
+
+        logger.info("Token version for {} bumped to {}", key, newVersion);
+        return newVersion;
+    }
+
+    /**
+     * Another instance bumped a version, drop our cached copy
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object key = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (key != null) {
+                cache.remove(key.toString());
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed token version message: {}", e.getMessage());
+        }
+    }
+
+    private void cacheVersion(String key, long version, long loadedAt) {
+        if (cache.size() >= MAX_CACHED_USERS && !cache.containsKey(key)) {
+            cache.clear();
+        }
+        cache.put(key, new CachedVersion(version, loadedAt));
+    }
+
+    private long readVersion(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private String key(String userType, String username) {
+        return KEY_PREFIX + (userType != null ? userType : "ADMIN") + ":" + username;
+    }
+
+    private static class CachedVersion {
+        private final long version;
+        private final long loadedAt;
+
+        CachedVersion(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cms.cms.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadWriteRoutingDataSourceTest {
+
+	private DataSource primary;
+	private DataSource replica;
+	private final AtomicBoolean replicaDown = new AtomicBoolean();
+
+	@BeforeEach
+	void setUp() {
+		primary = database("primary");
+		// Lets a test take the replica offline after the lag check has passed
+		replica = new DelegatingDataSource(database("replica")) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				if (replicaDown.get()) {
+					throw new SQLException("replica is down");
+				}
+				return super.getConnection();
+			}
+		};
+		replicaDown.set(false);
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 0", 5000);
+		monitor.check();
+
+		assertTrue(monitor.isReplicaUsable());
+		assertEquals("replica", nodeName(monitor, true));
+		assertEquals("primary", nodeName(monitor, false));
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 10000", 5000);
+		monitor.check();
+
+		assertFalse(monitor.isReplicaUsable());
+		assertEquals(10000, monitor.getLastLagMs());
+		assertEquals("primary", nodeName(monitor, true));
+	}
+
+	@Test
+	void unreachableReplicaFallsBackToPrimary() {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 0", 5000);
+		monitor.check();
+		replicaDown.set(true);
+
+		assertEquals("primary", nodeName(monitor, true));
+		assertFalse(monitor.isReplicaUsable());
+
+		replicaDown.set(false);
+		monitor.check();
+		assertEquals("replica", nodeName(monitor, true));
+	}
+
+	@Test
+	void workloadsUseTheirOwnPools() {
+		DataSource reporting = database("reporting");
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+				Map.of(Workload.OLTP, primary, Workload.REPORTING, reporting), null, null));
+
+		assertEquals("primary", nodeName(routing, true));
+		Workload previous = Workload.REPORTING.enter();
+		try {
+			assertEquals("reporting", nodeName(routing, true));
+		} finally {
+			Workload.restore(previous);
+		}
+		// No background pool configured, so scheduled jobs share the OLTP pool
+		previous = Workload.BACKGROUND.enter();
+		try {
+			assertEquals("primary", nodeName(routing, false));
+		} finally {
+			Workload.restore(previous);
+		}
+	}
+
+	private String nodeName(ReplicaLagMonitor monitor, boolean readOnly) {
+		return nodeName(new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor)), readOnly);
+	}
+
+	private String nodeName(DataSource routing, boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status ->
+				new JdbcTemplate(routing).queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+		jdbcTemplate.update("DELETE FROM node");
+		jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,169 @@
+package com.cms.cms.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.lang.NonNull;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RedisCircuitBreakerTest {
+
+	private static final long OPEN_DURATION_MS = 50;
+
+	private RedisCircuitBreaker circuitBreaker;
+	private final AtomicBoolean redisDown = new AtomicBoolean();
+
+	@BeforeEach
+	void setUp() {
+		circuitBreaker = new RedisCircuitBreaker();
+		ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 3);
+		ReflectionTestUtils.setField(circuitBreaker, "openDurationMs", OPEN_DURATION_MS);
+	}
+
+	@Test
+	void opensAfterConsecutiveFailuresAndSkipsRedisWhileOpen() {
+		AtomicInteger redisCalls = new AtomicInteger();
+		redisDown.set(true);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("fallback", circuitBreaker.call(() -> redis(redisCalls), () -> "fallback"));
+		}
+		assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+		assertEquals("fallback", circuitBreaker.call(() -> redis(redisCalls), () -> "fallback"));
+		assertEquals(3, redisCalls.get());
+	}
+
+	@Test
+	void failedProbeStaysOpenAndSuccessfulProbeCloses() throws InterruptedException {
+		AtomicInteger closed = new AtomicInteger();
+		circuitBreaker.onClose(closed::incrementAndGet);
+		openCircuit();
+
+		Thread.sleep(OPEN_DURATION_MS + 10);
+		assertEquals(RedisCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		assertEquals("fallback", circuitBreaker.call(() -> redis(new AtomicInteger()), () -> "fallback"));
+		assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+		redisDown.set(false);
+		Thread.sleep(OPEN_DURATION_MS + 10);
+		assertEquals("redis", circuitBreaker.call(() -> redis(new AtomicInteger()), () -> "fallback"));
+		assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	void replaysQueuedEvictionsOnceRedisIsBack() throws InterruptedException {
+		RedisCache target = new RedisCache("products");
+		Cache cache = wrap(target);
+		cache.put("1", "stale");
+		cache.put("2", "stale");
+
+		openCircuit();
+		cache.evict("1");
+		assertNull(cache.get("2"), "reads miss while the circuit is open");
+		assertNotNull(target.peek("1"), "eviction cannot reach Redis yet");
+
+		redisDown.set(false);
+		Thread.sleep(OPEN_DURATION_MS + 10);
+		cache.get("2");
+
+		assertNull(target.peek("1"));
+		assertNotNull(target.peek("2"));
+	}
+
+	@Test
+	void replaysEvictionQueuedWithoutOpeningTheCircuit() {
+		RedisCache target = new RedisCache("products");
+		Cache cache = wrap(target);
+		cache.put("1", "stale");
+
+		redisDown.set(true);
+		cache.evict("1");
+		redisDown.set(false);
+		assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		assertNotNull(target.peek("1"));
+
+		circuitBreaker.replayQueued();
+
+		assertNull(target.peek("1"));
+	}
+
+	private Cache wrap(RedisCache target) {
+		ConcurrentMapCacheManager delegate = new ConcurrentMapCacheManager() {
+			@Override
+			@NonNull
+			protected Cache createConcurrentMapCache(@NonNull String name) {
+				return target;
+			}
+		};
+		return new CircuitBreakingCacheManager(delegate, circuitBreaker).getCache(target.getName());
+	}
+
+	private void openCircuit() {
+		redisDown.set(true);
+		for (int i = 0; i < 3; i++) {
+			circuitBreaker.call(() -> redis(new AtomicInteger()), () -> "fallback");
+		}
+		assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	private String redis(AtomicInteger calls) {
+		calls.incrementAndGet();
+		if (redisDown.get()) {
+			throw new IllegalStateException("Redis is down");
+		}
+		return "redis";
+	}
+
+	// Map-backed cache that fails like Redis while redisDown is set
+	private class RedisCache extends ConcurrentMapCache {
+
+		RedisCache(String name) {
+			super(name);
+		}
+
+		Object peek(Object key) {
+			return getNativeCache().get(key);
+		}
+
+		@Override
+		protected Object lookup(@NonNull Object key) {
+			failIfDown();
+			return super.lookup(key);
+		}
+
+		@Override
+		public void put(@NonNull Object key, Object value) {
+			failIfDown();
+			super.put(key, value);
+		}
+
+		@Override
+		public void evict(@NonNull Object key) {
+			failIfDown();
+			super.evict(key);
+		}
+
+		@Override
+		public void clear() {
+			failIfDown();
+			super.clear();
+		}
+
+		private void failIfDown() {
+			if (redisDown.get()) {
+				throw new IllegalStateException("Redis is down");
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.cms.cms.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheLoaderTest {
+
+	private SingleFlightCacheLoader loader;
+
+	@BeforeEach
+	void setUp() {
+		// Redis stays unreachable for the whole test, so entries live in the local fallback cache
+		RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker();
+		ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 1);
+		ReflectionTestUtils.setField(circuitBreaker, "openDurationMs", TimeUnit.MINUTES.toMillis(10));
+		circuitBreaker.call(() -> {
+			throw new IllegalStateException("Redis is down");
+		}, () -> null);
+
+		ResilientRedisCache redisCache = new ResilientRedisCache();
+		ReflectionTestUtils.setField(redisCache, "circuitBreaker", circuitBreaker);
+		ReflectionTestUtils.setField(redisCache, "maxEntries", 100);
+		ReflectionTestUtils.setField(redisCache, "maxTtlMs", 60_000L);
+
+		loader = new SingleFlightCacheLoader();
+		ReflectionTestUtils.setField(loader, "redisCache", redisCache);
+		ReflectionTestUtils.setField(loader, "circuitBreaker", circuitBreaker);
+		ReflectionTestUtils.setField(loader, "beta", 1.0);
+		ReflectionTestUtils.setField(loader, "lockLeaseMs", 30_000L);
+		ReflectionTestUtils.setField(loader, "lockWaitMs", 5_000L);
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		int callers = 16;
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> loader.get("report:1", 1, TimeUnit.MINUTES, () -> {
+					loads.incrementAndGet();
+					loading.countDown();
+					await(release);
+					return "value";
+				})));
+			}
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+			// Give the other callers time to arrive while the first load is still running
+			Thread.sleep(200);
+			release.countDown();
+
+			for (Future<Object> result : results) {
+				assertEquals("value", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals("value", loader.get("report:1", 1, TimeUnit.MINUTES, () -> "reloaded"));
+	}
+
+	@Test
+	void failedLoadIsNotCachedAndIsRetried() {
+		assertThrows(IllegalStateException.class, () -> loader.get("report:2", 1, TimeUnit.MINUTES, () -> {
+			throw new IllegalStateException("database unavailable");
+		}));
+
+		assertEquals("value", loader.get("report:2", 1, TimeUnit.MINUTES, () -> "value"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.cms.cms.db;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangelogMigrationTest {
+
+	private static final String MASTER = "db/changelog/db.changelog-master.xml";
+
+	private static EmbeddedPostgres postgres;
+
+	@BeforeAll
+	static void start() throws Exception {
+		postgres = EmbeddedPostgres.start();
+	}
+
+	@AfterAll
+	static void stop() throws Exception {
+		if (postgres != null) {
+			postgres.close();
+		}
+	}
+
+	@Test
+	void migratesEmptyDatabaseWithDefaultContext() throws Exception {
+		JdbcTemplate jdbc = migrateFreshDatabase("default_only", "default");
+
+		assertTrue(tableExists(jdbc, "organization_products"));
+		assertTrue(tableExists(jdbc, "password_reset_tokens"));
+		assertEquals(1L, jdbc.queryForObject("SELECT nextval('password_reset_tokens_id_seq')", Long.class));
+	}
+
+	@Test
+	void migratesEmptyDatabaseWithDemoData() throws Exception {
+		JdbcTemplate jdbc = migrateFreshDatabase("with_demo", "default,demo");
+
+		long products = jdbc.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+		assertTrue(products > 0);
+		assertTrue(jdbc.queryForObject("SELECT nextval('products_id_seq')", Long.class) > products);
+		assertEquals(0L, jdbc.queryForObject(
+				"SELECT COUNT(*) FROM orders WHERE status IS NULL OR status <> UPPER(status)", Long.class));
+	}
+
+	@Test
+	void rerunOnMigratedDatabaseIsNoOp() throws Exception {
+		migrateFreshDatabase("rerun", "default,demo");
+		JdbcTemplate jdbc = new JdbcTemplate(postgres.getDatabase("postgres", "rerun"));
+		long changesets = jdbc.queryForObject("SELECT COUNT(*) FROM databasechangelog", Long.class);
+
+		update(jdbc.getDataSource(), "default,demo");
+
+		assertEquals(changesets, jdbc.queryForObject("SELECT COUNT(*) FROM databasechangelog", Long.class));
+	}
+
+	@Test
+	void normalizesLegacyOrderStatuses() throws Exception {
+		JdbcTemplate jdbc = migrateFreshDatabase("legacy_status", "default");
+		// Put the column back the way it was before normalize-order-status, then replay that changeset
+		jdbc.execute("ALTER TABLE orders ALTER COLUMN status TYPE VARCHAR(50), "
+				+ "ALTER COLUMN status DROP NOT NULL, ALTER COLUMN status DROP DEFAULT");
+		String[] legacy = {"Pending", " completed ", "Canceled", "In Progress", "on hold for customer callback", null};
+		for (int i = 0; i < legacy.length; i++) {
+			jdbc.update("INSERT INTO orders (order_id, status) VALUES (?, ?)", "LEGACY-" + i, legacy[i]);
+		}
+		jdbc.update("DELETE FROM databasechangelog WHERE id = 'normalize-order-status'");
+
+		update(jdbc.getDataSource(), "default");
+
+		assertEquals(List.of("PENDING", "COMPLETED", "CANCELLED", "PROCESSING", "PENDING", "PENDING"),
+				jdbc.queryForList("SELECT status FROM orders ORDER BY order_id", String.class));
+		assertEquals("on hold for customer callback", jdbc.queryForObject(
+				"SELECT legacy_status FROM orders WHERE order_id = 'LEGACY-4'", String.class));
+		assertEquals(3L, jdbc.queryForObject("SELECT COUNT(*) FROM orders WHERE legacy_status IS NOT NULL", Long.class));
+	}
+
+	private static JdbcTemplate migrateFreshDatabase(String name, String contexts) throws Exception {
+		new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + name);
+		DataSource dataSource = postgres.getDatabase("postgres", name);
+		update(dataSource, contexts);
+		return new JdbcTemplate(dataSource);
+	}
+
+	private static void update(DataSource dataSource, String contexts) throws Exception {
+		try (Connection connection = dataSource.getConnection()) {
+			Database database = DatabaseFactory.getInstance()
+					.findCorrectDatabaseImplementation(new JdbcConnection(connection));
+			Liquibase liquibase = new Liquibase(MASTER, new ClassLoaderResourceAccessor(), database);
+			liquibase.update(new Contexts(contexts), new LabelExpression());
+		}
+	}
+
+	private static boolean tableExists(JdbcTemplate jdbc, String table) {
+		return Boolean.TRUE.equals(jdbc.queryForObject(
+				"SELECT EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = ?)", Boolean.class, table));
+	}
+}
@@ -0,0 +1,135 @@
+package com.cms.cms.service;
+
+import com.cms.cms.dto.OrderAnalyticsDTO;
+import com.cms.cms.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderAnalyticsEngineTest {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+	@Test
+	void groupsByMonthAndOrganization() {
+		OrderAnalyticsEngine engine = engine(snapshot -> {
+			snapshot.upsert(1, day("2025-01-05"), 10, OrderStatus.COMPLETED, 1050);
+			snapshot.upsert(2, day("20 Jan 2025"), 20, OrderStatus.PENDING, 200);
+			snapshot.upsert(3, day("2025-03-02 10:15:00"), 10, OrderStatus.COMPLETED, 300);
+			snapshot.upsert(4, day("not a date"), 10, OrderStatus.COMPLETED, 999);
+		});
+
+		OrderAnalyticsDTO.Query query = new OrderAnalyticsDTO.Query();
+		query.setBucket(OrderAnalyticsDTO.Bucket.MONTH);
+		query.setFromDate(JAN_1);
+		query.setToDate(LocalDate.of(2025, 3, 31));
+		List<OrderAnalyticsDTO.Row> months = engine.query(query).getRows();
+
+		assertEquals(3, months.size());
+		assertEquals(JAN_1, months.get(0).getBucketStart());
+		assertEquals(2, months.get(0).getOrderCount());
+		assertEquals(new BigDecimal("12.50"), months.get(0).getTotalAmount());
+		assertEquals(0, months.get(1).getOrderCount());
+		assertEquals(new BigDecimal("3.00"), months.get(2).getTotalAmount());
+
+		query.setGroupBy(OrderAnalyticsDTO.GroupBy.ORGANIZATION);
+		query.setBucket(OrderAnalyticsDTO.Bucket.ALL);
+		query.setStatuses(EnumSet.of(OrderStatus.COMPLETED));
+		List<OrderAnalyticsDTO.Row> orgs = engine.query(query).getRows();
+
+		assertEquals(1, orgs.size());
+		assertEquals(10, orgs.get(0).getOrgId());
+		assertEquals(2, orgs.get(0).getOrderCount());
+	}
+
+	@Test
+	void unboundedTotalsIncludeUndatedOrdersAndSkipRemovedOnes() {
+		OrderAnalyticsEngine engine = engine(snapshot -> {
+			snapshot.upsert(1, day("2025-01-05"), 10, OrderStatus.PENDING, 100);
+			snapshot.upsert(2, day(null), 10, OrderStatus.PENDING, 100);
+			snapshot.upsert(3, day("2025-01-06"), 10, OrderStatus.PENDING, 100);
+			snapshot.upsert(1, day(null), 10, OrderStatus.REJECTED, 100);
+			snapshot.remove(3);
+		});
+
+		OrderAnalyticsDTO.Query query = new OrderAnalyticsDTO.Query();
+		query.setGroupBy(OrderAnalyticsDTO.GroupBy.STATUS);
+		List<OrderAnalyticsDTO.Row> rows = engine.query(query).getRows();
+
+		assertEquals(2, rows.size());
+		assertNull(rows.get(0).getBucketStart());
+		assertEquals(OrderStatus.PENDING, rows.get(0).getStatus());
+		assertEquals(1, rows.get(0).getOrderCount());
+		assertEquals(OrderStatus.REJECTED, rows.get(1).getStatus());
+
+		// An update without a date keeps the order's original day
+		query.setGroupBy(OrderAnalyticsDTO.GroupBy.NONE);
+		query.setBucket(OrderAnalyticsDTO.Bucket.DAY);
+		query.setFromDate(LocalDate.of(2025, 1, 5));
+		query.setToDate(LocalDate.of(2025, 1, 5));
+		assertEquals(1, engine.query(query).getRows().get(0).getOrderCount());
+	}
+
+	@Test
+	void parallelScanMatchesSequentialTotals() {
+		int orders = OrderAnalyticsEngine.PARALLEL_THRESHOLD * 3 + 17;
+		OrderAnalyticsEngine engine = engine(snapshot -> {
+			for (int id = 0; id < orders; id++) {
+				snapshot.upsert(id, (int) JAN_1.toEpochDay() + id % 365, id % 7,
+						OrderStatus.values()[id % OrderStatus.values().length], 100);
+			}
+		});
+
+		OrderAnalyticsDTO.Query query = new OrderAnalyticsDTO.Query();
+		query.setBucket(OrderAnalyticsDTO.Bucket.WEEK);
+		query.setFromDate(JAN_1);
+		query.setToDate(LocalDate.of(2025, 12, 31));
+		long counted = engine.query(query).getRows().stream().mapToLong(OrderAnalyticsDTO.Row::getOrderCount).sum();
+
+		assertEquals(orders, counted);
+	}
+
+	@Test
+	void rejectsInvertedRange() {
+		OrderAnalyticsEngine engine = engine(snapshot -> { });
+		OrderAnalyticsDTO.Query query = new OrderAnalyticsDTO.Query();
+		query.setFromDate(JAN_1);
+		query.setToDate(JAN_1.minusDays(1));
+
+		assertThrows(IllegalArgumentException.class, () -> engine.query(query));
+	}
+
+	@Test
+	void rowIndexSurvivesResizing() {
+		OrderAnalyticsEngine.LongIntMap rows = new OrderAnalyticsEngine.LongIntMap(8);
+		for (int i = 0; i < 10_000; i++) {
+			rows.put(i * 64L + Long.MIN_VALUE / 2, i);
+		}
+		rows.put(0L, 42);
+		rows.put(0L, 43);
+
+		assertEquals(9_999, rows.get(9_999 * 64L + Long.MIN_VALUE / 2));
+		assertEquals(43, rows.get(0L));
+		assertEquals(-1, rows.get(1L));
+	}
+
+	private static OrderAnalyticsEngine engine(Consumer<OrderAnalyticsEngine.Columns> rows) {
+		OrderAnalyticsEngine.Columns snapshot = new OrderAnalyticsEngine.Columns(0);
+		rows.accept(snapshot);
+		OrderAnalyticsEngine engine = new OrderAnalyticsEngine();
+		engine.replaceSnapshot(snapshot);
+		return engine;
+	}
+
+	private static int day(String orderDate) {
+		return OrderAnalyticsEngine.toEpochDay(orderDate);
+	}
+}
@@ -0,0 +1,85 @@
+package com.cms.cms.service;
+
+import com.cms.cms.dto.PendingOrderQueueDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+		"spring.liquibase.enabled=false",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@Import({PendingOrderQueueService.class, SnowflakeOrderIdGenerator.class})
+class PendingOrderQueueServiceTest {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+	@Autowired
+	private PendingOrderQueueService queueService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// Five orders share a timestamp, so page boundaries land inside the tie
+		for (long id = 1; id <= 5; id++) {
+			insert(id, "PENDING", NOON);
+		}
+		insert(6, "PENDING", NOON.minusMinutes(1));
+		insert(7, "PENDING", NOON.minusMinutes(1));
+		insert(8, "PENDING", null);
+		insert(9, "PENDING", null);
+		insert(10, "COMPLETED", NOON);
+	}
+
+	@Test
+	void pagesThroughTiesWithoutSkippingOrRepeating() {
+		List<Long> expected = List.of(5L, 4L, 3L, 2L, 1L, 7L, 6L, 9L, 8L);
+		for (int size = 1; size <= expected.size() + 1; size++) {
+			assertEquals(expected, readAll(size), "page size " + size);
+		}
+	}
+
+	@Test
+	void lastPageHasNoCursor() {
+		PendingOrderQueueDTO.Page page = queueService.getPage(new PendingOrderQueueDTO.Filter(), null, 9);
+
+		assertEquals(9, page.getItems().size());
+		assertFalse(page.isHasMore());
+		assertEquals(null, page.getNextCursor());
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(IllegalArgumentException.class,
+				() -> queueService.getPage(new PendingOrderQueueDTO.Filter(), "not-a-cursor", 5));
+	}
+
+	private List<Long> readAll(int size) {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			PendingOrderQueueDTO.Page page = queueService.getPage(new PendingOrderQueueDTO.Filter(), cursor, size);
+			page.getItems().forEach(item -> ids.add(item.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private void insert(long id, String status, LocalDateTime placedAt) {
+		jdbcTemplate.update("INSERT INTO orders (id, order_id, status, placed_at) VALUES (?, ?, ?, ?)",
+				id, "ORD-" + id, status, placedAt);
+	}
+}
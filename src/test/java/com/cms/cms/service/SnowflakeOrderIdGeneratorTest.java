@@ -0,0 +1,110 @@
+package com.cms.cms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeOrderIdGeneratorTest {
+
+	private static final long EPOCH = 1704067200000L;
+
+	@Test
+	void generatesUniqueIdsAcrossThreads() throws Exception {
+		SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(7, EPOCH);
+		int threads = 8;
+		int idsPerThread = 500_000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					long[] ids = new long[idsPerThread];
+					for (int i = 0; i < idsPerThread; i++) {
+						ids[i] = generator.nextId();
+					}
+					return ids;
+				}));
+			}
+
+			long[] all = new long[threads * idsPerThread];
+			int offset = 0;
+			for (Future<long[]> future : futures) {
+				long[] ids = future.get();
+				for (int i = 1; i < ids.length; i++) {
+					assertTrue(ids[i] > ids[i - 1], "IDs must increase within a thread");
+				}
+				System.arraycopy(ids, 0, all, offset, ids.length);
+				offset += ids.length;
+			}
+
+			Arrays.sort(all);
+			for (int i = 1; i < all.length; i++) {
+				assertTrue(all[i] != all[i - 1], "Duplicate ID " + all[i]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void staysMonotonicWhenClockMovesBackwards() {
+		AtomicLong clock = new AtomicLong(EPOCH + 10_000);
+		SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1, EPOCH, clock::get);
+
+		long before = generator.nextId();
+		clock.addAndGet(-1_000);
+		long after = generator.nextId();
+
+		assertTrue(after > before);
+	}
+
+	@Test
+	void borrowsNextMillisecondWhenSequenceIsExhausted() {
+		AtomicLong clock = new AtomicLong(EPOCH + 10_000);
+		SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1, EPOCH, clock::get);
+
+		long previous = generator.nextId();
+		for (int i = 0; i <= SnowflakeOrderIdGenerator.MAX_SEQUENCE + 10; i++) {
+			long next = generator.nextId();
+			assertTrue(next > previous);
+			previous = next;
+		}
+	}
+
+	@Test
+	void embedsNodeId() {
+		SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1023, EPOCH);
+
+		long id = generator.nextId();
+
+		assertEquals(1023, (id >>> SnowflakeOrderIdGenerator.SEQUENCE_BITS) & SnowflakeOrderIdGenerator.MAX_NODE_ID);
+	}
+
+	@Test
+	void rejectsOutOfRangeNodeId() {
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderIdGenerator(1024, EPOCH));
+		assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderIdGenerator(-1, EPOCH));
+	}
+
+	@Test
+	void encodedFormIsFixedWidthAndSortable() {
+		assertEquals("ORD-0000000000000", SnowflakeOrderIdGenerator.encode(0));
+		assertEquals("ORD-000000000000Z", SnowflakeOrderIdGenerator.encode(31));
+
+		String smaller = SnowflakeOrderIdGenerator.encode(123_456_789L);
+		String larger = SnowflakeOrderIdGenerator.encode(987_654_321_000L);
+		assertEquals(17, smaller.length());
+		assertTrue(smaller.compareTo(larger) < 0);
+	}
+}